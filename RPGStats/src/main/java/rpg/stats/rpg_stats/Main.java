@@ -20,7 +20,6 @@ public class Main extends JavaPlugin {
     private AbilityManager abilityManager;
     private XPDisplay xpDisplay;
     private StatsGUI statsGUI;
-    private RPGClassManager classManager;
 
 
     @Override
@@ -30,11 +29,10 @@ public class Main extends JavaPlugin {
         FileConfiguration config = getConfig();
 
         // Inicialización de managers en orden correcto
-        this.xpDisplay = new XPDisplay();
+        this.xpDisplay = new XPDisplay(this);
         this.playerProgress = new PlayerProgress(this, config, xpDisplay);
-        this.abilityManager = new AbilityManager(config, playerProgress, this);
+        this.abilityManager = new AbilityManager(playerProgress);
         this.statsGUI = new StatsGUI(playerProgress, this);
-        this.classManager = new RPGClassManager(config); // Pasar la configuración correctamente
 
         xpDisplay.setPlayerProgress(playerProgress);
         playerProgress.setXpDisplay(xpDisplay);
@@ -43,7 +41,6 @@ public class Main extends JavaPlugin {
         Bukkit.getPluginManager().registerEvents(new GUIListener(statsGUI), this);
         Bukkit.getPluginManager().registerEvents(statsGUI, this);
         Bukkit.getPluginManager().registerEvents(new RPGActionsListener(playerProgress, xpDisplay,this), this);
-        Bukkit.getPluginManager().registerEvents(new DataSaveListener(playerProgress), this);
         Bukkit.getPluginManager().registerEvents(new PlayerListener(playerProgress, abilityManager), this);
 
         // Registro de comandos mejorado
@@ -56,7 +53,7 @@ public class Main extends JavaPlugin {
         commands.put("habilidad", new AbilityCommand(abilityManager));
         commands.put("rpgadmin", new AdminCommand(this, playerProgress));
         commands.put("atributos", new AttributesCommand(statsGUI, playerProgress));
-        commands.put("classinfo", new ClassCommand(classManager));
+        commands.put("classinfo", new ClassCommand(playerProgress));
         commands.put("progreso", new ProgressCommand(playerProgress, xpDisplay));
 
         // Registrar cada comando
@@ -110,23 +107,32 @@ public class Main extends JavaPlugin {
     @Override
     public void onDisable() {
         xpDisplay.cleanup();
-        Bukkit.getOnlinePlayers().forEach(playerProgress::savePlayerData);
+        playerProgress.shutdown();
     }
 
 
 // Listeners se mantienen igual
-record DataSaveListener(PlayerProgress playerProgress) implements org.bukkit.event.Listener {
-    @org.bukkit.event.EventHandler
-    public void onPlayerQuit(org.bukkit.event.player.PlayerQuitEvent event) {
-        playerProgress.savePlayerData(event.getPlayer());
+record PlayerListener(PlayerProgress playerProgress, AbilityManager abilityManager) implements org.bukkit.event.Listener {
+    // Lectura del disco fuera del hilo principal, solo si el login no fue rechazado
+    @org.bukkit.event.EventHandler(priority = org.bukkit.event.EventPriority.MONITOR)
+    public void onAsyncPreLogin(org.bukkit.event.player.AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != org.bukkit.event.player.AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            playerProgress.discardPendingSession(event.getUniqueId());
+            return;
+        }
+        // Con datos ilegibles no se entra: la sesión empezaría de cero y acabaría guardándose encima
+        if (!playerProgress.preloadPlayerData(event.getUniqueId(), event.getName())) {
+            event.disallow(org.bukkit.event.player.AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                    net.kyori.adventure.text.Component.text("No se pudieron cargar tus datos. Avisa a un administrador.",
+                            net.kyori.adventure.text.format.NamedTextColor.RED));
+        }
     }
-}
 
-record PlayerListener(PlayerProgress playerProgress, AbilityManager abilityManager) implements org.bukkit.event.Listener {
-    @org.bukkit.event.EventHandler
+    // Lo antes posible: el resto de oyentes ya encuentran la sesión creada
+    @org.bukkit.event.EventHandler(priority = org.bukkit.event.EventPriority.LOWEST)
     public void onPlayerJoin(org.bukkit.event.player.PlayerJoinEvent event) {
         Player player = event.getPlayer();
-        playerProgress.loadPlayerData(player);
+        playerProgress.attachPlayerData(player);
     }
 }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package rpg.stats.rpg_stats.commands;
 
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -10,7 +11,10 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rpg.stats.rpg_stats.gui.ConfirmationGUI;
+import rpg.stats.rpg_stats.managers.EffectReapplier;
+import rpg.stats.rpg_stats.managers.PlayerDataStore;
 import rpg.stats.rpg_stats.managers.PlayerProgress;
+import rpg.stats.rpg_stats.managers.SessionCache;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -43,7 +47,11 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
 
         switch (args[0].toLowerCase()) {
             case "reload":
-                handleReload(sender);
+                if (args.length > 1 && args[1].equalsIgnoreCase("status")) {
+                    handleReloadStatus(sender);
+                } else {
+                    handleReload(sender);
+                }
                 break;
             case "setlevel":
                 handleSetLevel(sender, args);
@@ -57,6 +65,12 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
             case "reset":
                 handleReset(sender, args);
                 break;
+            case "top":
+                handleTop(sender, args);
+                break;
+            case "cache":
+                handleCache(sender);
+                break;
             default:
                 sendHelp(sender);
         }
@@ -64,10 +78,45 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
     }
 
     private void handleReload(@NotNull CommandSender sender) {
-        plugin.reloadConfig();
-        progress.getAttributeManager().reload(plugin.getConfig());
-        sender.sendMessage("§aConfiguración recargada correctamente.");
-        logAction(sender, "reload", "config");
+        sender.sendMessage("§7Recargando configuración...");
+        // El futuro se completa en el hilo principal, tras sustituir la configuración
+        progress.reloadSettings().whenComplete((settings, error) -> {
+            if (error != null) {
+                sender.sendMessage("§cNo se pudo recargar la configuración: " + error.getMessage());
+                plugin.getLogger().warning("Error al recargar la configuración: " + error.getMessage());
+                return;
+            }
+            sender.sendMessage("§aConfiguración recargada correctamente.");
+            logAction(sender, "reload", "config");
+
+            // Los efectos de atributos se reaplican repartidos entre ticks
+            EffectReapplier.Pass pass = progress.getEffectReapplier().getCurrent();
+            if (pass == null || pass.isDone()) return;
+            sender.sendMessage(String.format("§7Reaplicando efectos a §e%d §7jugadores... §8(/rpgadmin reload status)",
+                    pass.getTotal()));
+            pass.getCompletion().whenComplete((done, cancelled) -> {
+                if (cancelled == null) {
+                    sender.sendMessage(String.format("§aEfectos reaplicados a §e%d §ajugadores en §e%d §aticks §7(%.1f ms)",
+                            done.getProcessed(), done.getTicks(), done.getBusyMillis()));
+                }
+            });
+        });
+    }
+
+    private void handleReloadStatus(@NotNull CommandSender sender) {
+        EffectReapplier.Pass pass = progress.getEffectReapplier().getCurrent();
+        if (pass == null) {
+            sender.sendMessage("§7No se ha recargado la configuración desde el arranque.");
+            return;
+        }
+
+        int total = pass.getTotal();
+        sender.sendMessage(String.format("§6Reaplicación de efectos: %s",
+                pass.isDone() ? "§aterminada" : "§een curso"));
+        sender.sendMessage(String.format("§eJugadores: §a%d§7/§a%d §7(%.0f%%)",
+                pass.getProcessed(), total, total == 0 ? 100.0 : pass.getProcessed() * 100.0 / total));
+        sender.sendMessage(String.format("§eTicks: §a%d §7| §eTiempo en el hilo principal: §a%.1f ms",
+                pass.getTicks(), pass.getBusyMillis()));
     }
 
     private void handleSetLevel(@NotNull CommandSender sender, @NotNull String[] args) {
@@ -192,6 +241,47 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
         ).open(admin);
     }
 
+    private void handleTop(@NotNull CommandSender sender, @NotNull String[] args) {
+        int limit = 10;
+        if (args.length >= 2) {
+            try {
+                limit = Math.max(1, Math.min(100, Integer.parseInt(args[1])));
+            } catch (NumberFormatException e) {
+                sender.sendMessage("§cLa cantidad debe ser un número entero.");
+                return;
+            }
+        }
+
+        progress.fetchTopPlayers(limit).whenComplete((entries, error) ->
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (error != null) {
+                        sender.sendMessage("§cNo se pudo consultar el ranking.");
+                        plugin.getLogger().warning("Error al consultar el ranking: " + error.getMessage());
+                        return;
+                    }
+
+                    sender.sendMessage("§6=== Top " + entries.size() + " por nivel ===");
+                    int position = 1;
+                    for (PlayerDataStore.RankingEntry entry : entries) {
+                        OfflinePlayer player = Bukkit.getOfflinePlayer(entry.playerId());
+                        String name = player.getName() != null ? player.getName() : entry.playerId().toString();
+                        sender.sendMessage(String.format("§e%d. §a%s §7- Nivel §6%d §7(%.1f XP, %s)",
+                                position++, name, entry.level(), entry.xp(), entry.playerClass()));
+                    }
+                }));
+    }
+
+    private void handleCache(@NotNull CommandSender sender) {
+        SessionCache cache = progress.getSessionCache();
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        long total = hits + misses;
+        sender.sendMessage("§6=== Caché de sesiones ===");
+        sender.sendMessage("§eJugadores en caché: §a" + cache.size());
+        sender.sendMessage(String.format("§eAciertos: §a%d §7| §eFallos: §c%d §7(%.1f%% aciertos)",
+                hits, misses, total == 0 ? 0.0 : hits * 100.0 / total));
+    }
+
     private void logAction(@NotNull CommandSender sender, @NotNull String action, @NotNull String target) {
         String message = String.format("[Admin Action] %s executed '%s' on %s",
                 sender.getName(), action, target);
@@ -210,10 +300,13 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
     private void sendHelp(@NotNull CommandSender sender) {
         sender.sendMessage("§6=== RPGAdmin Comandos ===");
         sender.sendMessage("§e/rpgadmin reload §7- Recarga la configuración");
+        sender.sendMessage("§e/rpgadmin reload status §7- Progreso de la última recarga");
         sender.sendMessage("§e/rpgadmin setlevel <jugador> <nivel> §7- Establece nivel");
         sender.sendMessage("§e/rpgadmin setxp <jugador> <xp> §7- Establece XP");
         sender.sendMessage("§e/rpgadmin setstats <jugador> <atributo> <valor> §7- Modifica atributos");
         sender.sendMessage("§e/rpgadmin reset <jugador> §7- Resetea progreso");
+        sender.sendMessage("§e/rpgadmin top [cantidad] §7- Ranking por nivel");
+        sender.sendMessage("§e/rpgadmin cache §7- Estadísticas de la caché de sesiones");
     }
 
     @Nullable
@@ -225,9 +318,12 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("reload", "setlevel", "setxp", "setstats", "reset"));
-        } else if (args.length == 2 && !args[0].equalsIgnoreCase("reload")) {
+            completions.addAll(Arrays.asList("reload", "setlevel", "setxp", "setstats", "reset", "top", "cache"));
+        } else if (args.length == 2 && !args[0].equalsIgnoreCase("reload") && !args[0].equalsIgnoreCase("top")
+                && !args[0].equalsIgnoreCase("cache")) {
             Bukkit.getOnlinePlayers().forEach(p -> completions.add(p.getName()));
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("reload")) {
+            completions.add("status");
         } else if (args.length == 3 && args[0].equalsIgnoreCase("setstats")) {
             completions.addAll(progress.getAttributeManager().getAttributeNames());
         }
@@ -5,13 +5,13 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
-import rpg.stats.rpg_stats.managers.RPGClassManager;
+import rpg.stats.rpg_stats.managers.PlayerProgress;
 
 public class ClassCommand implements CommandExecutor {
-    private final RPGClassManager classManager;
+    private final PlayerProgress progress;
 
-    public ClassCommand(RPGClassManager classManager) {
-        this.classManager = classManager;
+    public ClassCommand(PlayerProgress progress) {
+        this.progress = progress;
     }
 
     @Override
@@ -28,7 +28,7 @@ public class ClassCommand implements CommandExecutor {
         }
 
         // Usando el método displayClassInfo
-        classManager.displayClassInfo(player, args[0].toLowerCase());
+        progress.getClassManager().displayClassInfo(player, args[0].toLowerCase());
         return true;
     }
 }
\ No newline at end of file
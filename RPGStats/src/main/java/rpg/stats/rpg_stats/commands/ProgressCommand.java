@@ -47,7 +47,7 @@ public class ProgressCommand implements CommandExecutor, TabCompleter {
             return false;
         }
 
-        xpDisplay.updateDisplay(player);
+        xpDisplay.markDirty(player);
         int level = progress.getLevel(player);
         float currentXP = progress.getCurrentXP(player);
         float neededXP = progress.getXPToNextLevel(player);
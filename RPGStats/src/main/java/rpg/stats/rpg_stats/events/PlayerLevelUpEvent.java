@@ -44,8 +44,9 @@ public class PlayerLevelUpEvent extends Event {
 
     public float getXpToNextLevel() { return xpToNextLevel; }
 
+    // Si el salto pasa por algún nivel múltiplo de 5
     public boolean isMilestoneLevel() {
-        return newLevel % 5 == 0;
+        return newLevel / 5 > oldLevel / 5;
     }
 
     public int getLevelsGained() {
@@ -14,6 +14,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.java.JavaPlugin;
 import rpg.stats.rpg_stats.managers.PlayerProgress;
+import rpg.stats.rpg_stats.managers.PlayerSession;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextColor;
 import org.bukkit.event.inventory.InventoryClickEvent;
@@ -24,8 +25,6 @@ import java.util.*;
 public class StatsGUI implements Listener {
     private final PlayerProgress progress;
     private final JavaPlugin plugin;
-    private final HashMap<UUID, Integer> pendingPoints = new HashMap<>();
-    private final HashMap<UUID, String>selectedAttributes = new HashMap<>();
 
     private final ItemStack InfoItem;
     private final Map<String, Material>attributeIcons = Map.of(
@@ -131,7 +130,7 @@ public class StatsGUI implements Listener {
         meta.displayName(Component.text("§eTus Estadísticas"));
 
         int availablePoints = progress.getAvailablePoints(player);
-        int pending = pendingPoints.getOrDefault(player.getUniqueId(), 0);
+        int pending = progress.getSession(player).getPendingPoints();
         float xp = progress.getCurrentXP(player);
         float neededXP = progress.getXPToNextLevel(player);
         int level = progress.getLevel(player);
@@ -161,15 +160,16 @@ public class StatsGUI implements Listener {
         ItemMeta meta = item.getItemMeta();
 
         int currentValue = progress.getAttribute(player, attribute);
-        int pending = pendingPoints.getOrDefault(player.getUniqueId(), 0);
-        boolean isSelected = attribute.equals(selectedAttributes.get(player.getUniqueId()));
+        PlayerSession session = progress.getSession(player);
+        int pending = session.getPendingPoints();
+        boolean isSelected = attribute.equals(session.getSelectedAttribute());
 
         // Color diferente si está seleccionado
         TextColor nameColor = isSelected ? TextColor.color(0xFFAA00) : TextColor.color(0x55FF55);
         meta.displayName(Component.text(capitalizeFirstLetter(attribute)).color(nameColor));
 
-        // Descripción del atributo
-        String bonusInfo = progress.getAttributeManager().getAttributeBonusInfo(attribute, currentValue);
+        // Descripción del atributo, precalculada para cada valor
+        Component bonusInfo = progress.getAttributeManager().getAttributeBonusComponent(attribute, currentValue);
 
         List<Component> lore = new ArrayList<>();
         lore.add(Component.text("Nivel actual: ").color(TextColor.color(0xAAAAAA))
@@ -181,7 +181,7 @@ public class StatsGUI implements Listener {
         }
 
         lore.add(Component.text("Efectos: ").color(TextColor.color(0xAAAAAA))
-                .append(Component.text(bonusInfo).color(TextColor.color(0x55FFFF))));
+                .append(bonusInfo));
 
         lore.add(Component.empty());
         lore.add(Component.text("Click para seleccionar").color(TextColor.color(0x55FF55)));
@@ -221,19 +221,18 @@ public class StatsGUI implements Listener {
             return;
         }
 
-        UUID uuid = player.getUniqueId();
+        PlayerSession session = progress.getSession(player);
         int pointsToAdd = isRightClick ? Math.min(availablePoints, 5) : 1; // Máximo 5 puntos con click derecho
 
-        if (attribute.equals(selectedAttributes.get(uuid))) {
-            int newPoints = pendingPoints.getOrDefault(uuid, 0) + pointsToAdd;
+        if (attribute.equals(session.getSelectedAttribute())) {
+            int newPoints = session.getPendingPoints() + pointsToAdd;
             if (newPoints > availablePoints) {
                 player.sendMessage("§cNo tienes suficientes puntos.");
                 return;
             }
-            pendingPoints.put(uuid, newPoints);
+            session.setPendingPoints(newPoints);
         } else {
-            selectedAttributes.put(uuid, attribute);
-            pendingPoints.put(uuid, pointsToAdd);
+            session.selectAttribute(attribute, pointsToAdd);
         }
 
         player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1.0f, 1.0f);
@@ -266,11 +265,11 @@ public class StatsGUI implements Listener {
 
 
     private void confirmChanges(Player player) {
-        UUID uuid = player.getUniqueId();
-        String selectedAttribute = selectedAttributes.get(uuid);
-        Integer points = pendingPoints.get(uuid);
+        PlayerSession session = progress.getSession(player);
+        String selectedAttribute = session.getSelectedAttribute();
+        int points = session.getPendingPoints();
 
-        if (selectedAttribute == null || points == null || points <= 0) {
+        if (selectedAttribute == null || points <= 0) {
             player.sendMessage("§cSelecciona un atributo y asigna puntos primero.");
             return;
         }
@@ -286,8 +285,7 @@ public class StatsGUI implements Listener {
         progress.setAvailablePoints(player, progress.getAvailablePoints(player) - points);
 
         // Resetear selección
-        selectedAttributes.remove(uuid);
-        pendingPoints.remove(uuid);
+        session.clearSelection();
 
         // Efectos
         player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f);
@@ -322,7 +320,10 @@ public class StatsGUI implements Listener {
     }
 
     public void clearSelections(UUID uuid) {
-        pendingPoints.remove(uuid);
+        PlayerSession session = progress.getSession(uuid);
+        if (session != null) {
+            session.setPendingPoints(0);
+        }
     }
 
     private String capitalizeFirstLetter(String str) {
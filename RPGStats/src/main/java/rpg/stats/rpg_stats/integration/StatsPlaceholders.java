@@ -48,7 +48,8 @@ public class StatsPlaceholders extends PlaceholderExpansion {
     public String onPlaceholderRequest(Player player, @NotNull String params) {
         if (player == null) return null;
 
-        switch (params.toLowerCase()) {
+        String key = params.toLowerCase();
+        switch (key) {
             case "level":
                 return String.valueOf(progress.getLevel(player));
             case "xp":
@@ -58,6 +59,14 @@ public class StatsPlaceholders extends PlaceholderExpansion {
             case "attribute_points":
                 return String.valueOf(progress.getAvailablePoints(player));
             default:
+                // %rpgstats_bonus_<atributo>%: texto de bonificación ya precalculado
+                if (key.startsWith("bonus_")) {
+                    String attribute = key.substring("bonus_".length());
+                    if (progress.getAttributeManager().isValidAttribute(attribute)) {
+                        return progress.getAttributeManager().getAttributeBonusInfo(attribute,
+                                progress.getAttribute(player, attribute));
+                    }
+                }
                 return null;
         }
     }
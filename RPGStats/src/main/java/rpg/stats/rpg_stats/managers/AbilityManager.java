@@ -3,7 +3,6 @@ package rpg.stats.rpg_stats.managers;
 import org.bukkit.NamespacedKey;
 import org.bukkit.Registry;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffect;
@@ -15,33 +14,11 @@ import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 public class AbilityManager {
-    private final Map<String, Ability> abilities = new HashMap<>();
     private final PlayerProgress playerProgress;
-    private final JavaPlugin plugin;
-    private final Map<UUID, Map<String, Long>> cooldowns = new HashMap<>();
 
-    public AbilityManager(@NotNull FileConfiguration config,
-                          @NotNull PlayerProgress playerProgress,
-                          @NotNull JavaPlugin plugin) {
+    // Las habilidades se compilan con el resto de la configuración en RpgConfig
+    public AbilityManager(@NotNull PlayerProgress playerProgress) {
         this.playerProgress = Objects.requireNonNull(playerProgress);
-        this.plugin = Objects.requireNonNull(plugin);
-        loadAbilities(Objects.requireNonNull(config));
-    }
-
-    private void loadAbilities(@NotNull FileConfiguration config) {
-        ConfigurationSection section = config.getConfigurationSection("abilities");
-        if (section == null) {
-            plugin.getLogger().warning("No se encontró la sección 'abilities' en config.yml");
-            return;
-        }
-
-        for (String abilityId : section.getKeys(false)) {
-            ConfigurationSection abilitySection = section.getConfigurationSection(abilityId);
-            if (abilitySection != null) {
-                Ability ability = new Ability(abilityId, abilitySection, playerProgress, plugin);
-                abilities.put(abilityId.toLowerCase(), ability);
-            }
-        }
     }
 
     public boolean checkAbilityCondition(@NotNull Player player, @NotNull String abilityId) {
@@ -79,7 +56,7 @@ public class AbilityManager {
 
     private int calculateManaCost(Player player, Ability ability) {
         int manaCost = ability.getManaCost();
-        String playerClass = playerProgress.getCurrentClass(player.getUniqueId());
+        String playerClass = playerProgress.getSession(player).getCurrentClass();
 
         if (playerClass != null) {
             RPGClassManager.RPGClass rpgClass = playerProgress.getClassManager()
@@ -92,38 +69,33 @@ public class AbilityManager {
     }
 
     public void applyPassiveAbilities(@NotNull Player player) {
-        abilities.values().stream()
+        playerProgress.getSettings().getAbilities().values().stream()
                 .filter(ability -> "passive".equalsIgnoreCase(ability.getType()))
                 .forEach(ability -> ability.applyPassiveEffects(player));
     }
 
     public @NotNull Map<String, Ability> getAbilitiesMap() {
-        return Collections.unmodifiableMap(abilities);
+        return playerProgress.getSettings().getAbilities();
     }
 
     private @Nullable Ability getAbility(@NotNull String abilityId) {
-        return abilities.get(abilityId.toLowerCase());
+        return playerProgress.getSettings().getAbilities().get(abilityId.toLowerCase());
     }
 
     private boolean isOnCooldown(Player player, Ability ability) {
         if (ability.getCooldown() <= 0) return false;
-        Map<String, Long> playerCooldowns = cooldowns.get(player.getUniqueId());
-        return playerCooldowns != null && playerCooldowns.getOrDefault(ability.getId(), 0L) > System.currentTimeMillis();
+        Map<String, Long> playerCooldowns = playerProgress.getSession(player).getCooldowns();
+        return playerCooldowns.getOrDefault(ability.getId(), 0L) > System.currentTimeMillis();
     }
 
     private long getRemainingCooldown(Player player, Ability ability) {
-        Map<String, Long> playerCooldowns = cooldowns.get(player.getUniqueId());
-        if (playerCooldowns == null) return 0;
+        Map<String, Long> playerCooldowns = playerProgress.getSession(player).getCooldowns();
         return Math.max(0, playerCooldowns.getOrDefault(ability.getId(), 0L) - System.currentTimeMillis());
     }
 
-    public void cleanUpPlayer(Player player) {
-        cooldowns.remove(player.getUniqueId());
-    }
-
     private void applyCooldown(Player player, Ability ability) {
         if (ability.getCooldown() > 0) {
-            cooldowns.computeIfAbsent(player.getUniqueId(), k -> new HashMap<>())
+            playerProgress.getSession(player).getCooldowns()
                     .put(ability.getId(), System.currentTimeMillis() + (long)(ability.getCooldown() * 1000));
         }
     }
@@ -134,6 +106,8 @@ public class AbilityManager {
         private final String type;
         private final int requiredLevel;
         private final Map<String, Integer> requiredAttributes;
+        // Nombres de los efectos de la configuración; se resuelven en el hilo principal
+        private final Map<String, Integer> effectNames;
         private final Map<PotionEffectType, Integer> effects;
         private final double cooldown;
         private final int manaCost;
@@ -153,7 +127,36 @@ public class AbilityManager {
             this.playerProgress = playerProgress;
             this.plugin = plugin;
             this.requiredAttributes = loadAttributes(config);
-            this.effects = loadEffects(config);
+            this.effectNames = loadEffectNames(config);
+            this.effects = Map.of();
+        }
+
+        private Ability(@NotNull Ability source, @NotNull Map<PotionEffectType, Integer> effects) {
+            this.id = source.id;
+            this.name = source.name;
+            this.type = source.type;
+            this.requiredLevel = source.requiredLevel;
+            this.cooldown = source.cooldown;
+            this.manaCost = source.manaCost;
+            this.playerProgress = source.playerProgress;
+            this.plugin = source.plugin;
+            this.requiredAttributes = source.requiredAttributes;
+            this.effectNames = source.effectNames;
+            this.effects = effects;
+        }
+
+        /**
+         * Busca los efectos en el registro del servidor. Solo desde el hilo principal.
+         */
+        public @NotNull Ability resolveEffects() {
+            Map<PotionEffectType, Integer> resolved = new HashMap<>();
+            effectNames.forEach((effect, amplifier) -> {
+                PotionEffectType type = getModernPotionType(effect);
+                if (type != null) {
+                    resolved.put(type, amplifier);
+                }
+            });
+            return new Ability(this, resolved);
         }
 
         private @NotNull Map<String, Integer> loadAttributes(@NotNull ConfigurationSection config) {
@@ -167,16 +170,13 @@ public class AbilityManager {
             return attributes;
         }
 
-        private @NotNull Map<PotionEffectType, Integer> loadEffects(@NotNull ConfigurationSection config) {
-            Map<PotionEffectType, Integer> effects = new HashMap<>();
+        private @NotNull Map<String, Integer> loadEffectNames(@NotNull ConfigurationSection config) {
+            Map<String, Integer> effects = new LinkedHashMap<>();
             ConfigurationSection section = config.getConfigurationSection("effects");
             if (section != null) {
-                section.getKeys(false).forEach(effect -> {
-                    PotionEffectType type = getModernPotionType(effect);
-                    if (type != null) {
-                        effects.put(type, Math.max(1, section.getInt(effect, 1)));
-                    }
-                });
+                section.getKeys(false).forEach(effect ->
+                        effects.put(effect, Math.max(1, section.getInt(effect, 1)))
+                );
             }
             return effects;
         }
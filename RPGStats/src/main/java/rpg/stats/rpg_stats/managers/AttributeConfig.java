@@ -1,26 +1,108 @@
 package rpg.stats.rpg_stats.managers;
 
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextColor;
 import org.bukkit.configuration.ConfigurationSection;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
 
 public class AttributeConfig {
+    private static final TextColor BONUS_COLOR = TextColor.color(0x55FFFF);
+
     private final String displayName;
     private final int maxValue;
     private final List<AttributeEffect> effects;
     private final ConfigurationSection config;
+    private final Map<String, Formula> compiledBonuses;
+
+    // Texto de bonificación ya formateado para cada valor de 0 a max-value
+    private final String[] bonusInfo;
+    private final Component[] bonusComponents;
 
-    public AttributeConfig(ConfigurationSection config) {
+    public AttributeConfig(ConfigurationSection config, Logger logger) {
         this.config = config;
         this.displayName = config.getString("display-name", "");
         this.maxValue = config.getInt("max-value", 50);
         this.effects = loadEffects(config.getConfigurationSection("effects"));
+        this.compiledBonuses = compileBonuses(logger);
+
+        int size = Math.max(0, maxValue) + 1;
+        this.bonusInfo = new String[size];
+        this.bonusComponents = new Component[size];
+        for (int value = 0; value < size; value++) {
+            bonusInfo[value] = formatBonusInfo(value);
+            bonusComponents[value] = Component.text(bonusInfo[value]).color(BONUS_COLOR);
+        }
+    }
+
+    /**
+     * @return descripción de las bonificaciones para el valor indicado
+     */
+    public String getBonusInfo(int value) {
+        return value >= 0 && value < bonusInfo.length ? bonusInfo[value] : formatBonusInfo(value);
+    }
+
+    /**
+     * @return la misma descripción como componente, con el color del menú de atributos
+     */
+    public Component getBonusComponent(int value) {
+        return value >= 0 && value < bonusComponents.length
+                ? bonusComponents[value]
+                : Component.text(formatBonusInfo(value)).color(BONUS_COLOR);
+    }
+
+    private String formatBonusInfo(int value) {
+        // Si hay fórmulas definidas en config.yml, usarlas
+        if (!compiledBonuses.isEmpty()) {
+            StringBuilder bonuses = new StringBuilder();
+            compiledBonuses.forEach((description, formula) ->
+                    bonuses.append(String.format("%s: %.1f\n", description, formula.evaluate(value))));
+            return bonuses.toString().trim();
+        }
+
+        // Sistema de respaldo para atributos conocidos
+        return getDefaultBonusInfo(config.getName().toLowerCase(), value);
+    }
+
+    private static String getDefaultBonusInfo(String attribute, int value) {
+        // Mantener el sistema actual como respaldo
+        return switch (attribute) {
+            case "inteligencia" -> String.format("Maná: +%.1f regen, +%.1f%% poder mágico",
+                    value * 0.5, value * 8.0);
+            case "sabiduria" -> String.format("Maná: +%d, Reducción cooldown: %.1f%%",
+                    value * 2, Math.min(50, value * 1.0));
+            case "precision" -> String.format("Crítico: %.1f%%, Daño a distancia: +%.1f%%",
+                    Math.min(50, value * 1.0), value * 4.0);
+            case "agilidad" -> String.format("Velocidad ataque: +%.1f%%, Esquive: %.1f%%",
+                    value * 1.0, Math.min(25, value * 0.5));
+            default -> "";
+        };
+    }
+
+    // Las fórmulas se validan aquí, al cargar o recargar, y no en cada apertura del menú
+    private Map<String, Formula> compileBonuses(Logger logger) {
+        Map<String, Formula> compiled = new LinkedHashMap<>();
+        getBonusFormulas().forEach((description, formula) -> {
+            try {
+                compiled.put(description, Formula.compile(formula));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Error en fórmula '" + config.getCurrentPath() + ".bonuses." + description +
+                        "': " + formula + " - " + e.getMessage());
+            }
+        });
+        return Collections.unmodifiableMap(compiled);
+    }
+
+    public Map<String, Formula> getCompiledBonuses() {
+        return compiledBonuses;
     }
 
     public Map<String, String> getBonusFormulas() {
-        Map<String, String> formulas = new HashMap<>();
+        Map<String, String> formulas = new LinkedHashMap<>();
         ConfigurationSection bonuses = config.getConfigurationSection("bonuses");
 
         if (bonuses != null) {
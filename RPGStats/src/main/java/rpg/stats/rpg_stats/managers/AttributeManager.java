@@ -1,124 +1,41 @@
 package rpg.stats.rpg_stats.managers;
 
+import net.kyori.adventure.text.Component;
 import org.bukkit.attribute.Attribute;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 public class AttributeManager {
-    private final Map<String, AttributeConfig> attributes = new HashMap<>();
+    // Los atributos se leen siempre de la configuración publicada en ese momento
+    private final Supplier<RpgConfig> settings;
     private final JavaPlugin plugin;
-    private final Map<UUID, Map<String, Double>> originalValues = new HashMap<>();
 
-    public AttributeManager(FileConfiguration config, JavaPlugin plugin) {
-        this.plugin = plugin;
-        loadAttributes(config);
-    }
-
-    public void reload(@NotNull FileConfiguration newConfig) {
-        Objects.requireNonNull(newConfig, "La configuración no puede ser nula");
-        this.attributes.clear();
-        loadAttributes(newConfig);
-        plugin.getLogger().info("Atributos recargados correctamente");
-    }
-
-    private void loadAttributes(FileConfiguration config) {
-        ConfigurationSection section = config.getConfigurationSection("attributes");
-        if (section == null) {
-            plugin.getLogger().warning("No se encontró la sección 'attributes' en config.yml");
-            return;
-        }
-
-        for (String key : section.getKeys(false)) {
-            ConfigurationSection attrSection = section.getConfigurationSection(key);
-            if (attrSection != null) {
-                attributes.put(key.toLowerCase(), new AttributeConfig(attrSection));
-            }
-        }
+    public AttributeManager(@NotNull Supplier<RpgConfig> settings, @NotNull JavaPlugin plugin) {
+        this.settings = Objects.requireNonNull(settings);
+        this.plugin = Objects.requireNonNull(plugin);
     }
 
     public String getAttributeBonusInfo(String attribute, int value) {
         AttributeConfig config = getAttributeConfig(attribute.toLowerCase());
-        if (config == null) return "";
-
-        // Obtener fórmulas desde la configuración
-        Map<String, String> bonusFormulas = config.getBonusFormulas();
-
-        // Si hay fórmulas definidas en config.yml, usarlas
-        if (!bonusFormulas.isEmpty()) {
-            return formatDynamicBonuses(bonusFormulas, value);
-        }
-
-        // Sistema de respaldo para atributos conocidos
-        return getDefaultBonusInfo(attribute.toLowerCase(), value);
-
-    }
-    private String formatDynamicBonuses(Map<String, String> formulas, int value) {
-        StringBuilder bonuses = new StringBuilder();
-        formulas.forEach((description, formula) -> {
-            try {
-                double result = evaluateFormula(formula, value);
-                bonuses.append(String.format("%s: %.1f\n", description, result));
-            } catch (Exception e) {
-                plugin.getLogger().warning("Error en fórmula '" + description +
-                        "': " + formula + " - " + e.getMessage());
-            }
-        });
-        return bonuses.toString().trim();
-    }
-
-    private double evaluateFormula(String formula, int value) throws IllegalArgumentException {
-        // Reemplazar el valor y quitar espacios
-        String expr = formula.replace("value", String.valueOf(value)).replace(" ", "");
-
-        // Implementación básica de evaluador (puedes mejorarla)
-        if (expr.contains("*")) {
-            String[] parts = expr.split("\\*");
-            return Double.parseDouble(parts[0]) * Double.parseDouble(parts[1]);
-        }
-        if (expr.contains("+")) {
-            String[] parts = expr.split("\\+");
-            return Double.parseDouble(parts[0]) + Double.parseDouble(parts[1]);
-        }
-        if (expr.contains("-")) {
-            String[] parts = expr.split("-");
-            return Double.parseDouble(parts[0]) - Double.parseDouble(parts[1]);
-        }
-        if (expr.contains("/")) {
-            String[] parts = expr.split("/");
-            return Double.parseDouble(parts[0]) / Double.parseDouble(parts[1]);
-        }
-
-        // Si no hay operador, asumir que es un valor directo
-        return Double.parseDouble(expr);
+        return config != null ? config.getBonusInfo(value) : "";
     }
 
-    private String getDefaultBonusInfo(String attribute, int value) {
-        // Mantener el sistema actual como respaldo
-        return switch (attribute) {
-            case "inteligencia" -> String.format("Maná: +%.1f regen, +%.1f%% poder mágico",
-                    value * 0.5, value * 8.0);
-            case "sabiduria" -> String.format("Maná: +%d, Reducción cooldown: %.1f%%",
-                    value * 2, Math.min(50, value * 1.0));
-            case "precision" -> String.format("Crítico: %.1f%%, Daño a distancia: +%.1f%%",
-                    Math.min(50, value * 1.0), value * 4.0);
-            case "agilidad" -> String.format("Velocidad ataque: +%.1f%%, Esquive: %.1f%%",
-                    value * 1.0, Math.min(25, value * 0.5));
-            default -> "";
-        };
+    public @NotNull Component getAttributeBonusComponent(String attribute, int value) {
+        AttributeConfig config = getAttributeConfig(attribute.toLowerCase());
+        return config != null ? config.getBonusComponent(value) : Component.empty();
     }
 
     public boolean isValidAttribute(String name) {
-        return attributes.containsKey(name.toLowerCase());
+        return settings.get().getAttributes().containsKey(name.toLowerCase());
     }
 
     public Set<String> getAttributeNames() {
-        return Collections.unmodifiableSet(attributes.keySet());
+        return settings.get().getAttributes().keySet();
     }
 
     public int getMaxValue(String attribute) {
@@ -132,10 +49,11 @@ public class AttributeManager {
     }
 
     public @Nullable AttributeConfig getAttributeConfig(String name) {
-        return attributes.get(name.toLowerCase());
+        return settings.get().getAttribute(name);
     }
 
-    public void applyAttributeEffects(@NotNull Player player, @NotNull String attributeName, int value) {
+    public void applyAttributeEffects(@NotNull Player player, @NotNull PlayerSession session,
+                                      @NotNull String attributeName, int value) {
                     String normalizedName = attributeName.toLowerCase();
                     /*.replace("strength", "fuerza")
                     .replace("dexterity", "destreza")
@@ -151,17 +69,16 @@ public class AttributeManager {
                 return;
             }
 
-        saveOriginalValues(player);
-        clearAttributeEffects(player, attributeName);
+        saveOriginalValues(player, session);
+        clearAttributeEffects(player, session, attributeName);
 
         for (AttributeEffect effect : config.getEffects()) {
             effect.apply(player, value);
         }
     }
 
-    private void saveOriginalValues(@NotNull Player player) {
-        UUID uuid = player.getUniqueId();
-        if (!originalValues.containsKey(uuid)) {
+    private void saveOriginalValues(@NotNull Player player, @NotNull PlayerSession session) {
+        if (session.getOriginalValues() == null) {
             Map<String, Double> values = new HashMap<>();
 
             // Guardar valores originales con manejo de null
@@ -173,16 +90,16 @@ public class AttributeManager {
                 values.put("health", Objects.requireNonNull(player.getAttribute(Attribute.MAX_HEALTH)).getBaseValue());
             }
 
-            originalValues.put(uuid, values);
+            session.setOriginalValues(values);
         }
     }
 
-    private void clearAttributeEffects(@NotNull Player player, @NotNull String attributeName) {
+    private void clearAttributeEffects(@NotNull Player player, @NotNull PlayerSession session, @NotNull String attributeName) {
         AttributeConfig config = getAttributeConfig(attributeName);
         if (config == null) return;
 
-        UUID uuid = player.getUniqueId();
-        Map<String, Double> playerValues = originalValues.getOrDefault(uuid, new HashMap<>());
+        Map<String, Double> playerValues = session.getOriginalValues() != null
+                ? session.getOriginalValues() : Collections.emptyMap();
 
         // Restaurar valores con manejo seguro de null
         for (AttributeEffect effect : config.getEffects()) {
@@ -241,8 +158,8 @@ public class AttributeManager {
         }
     }
 
-    public void cleanUpPlayer(@NotNull Player player) {
-        originalValues.remove(player.getUniqueId());
+    public void cleanUpPlayer(@NotNull Player player, @NotNull PlayerSession session) {
+        session.setOriginalValues(null);
 
         // Limpiar metadatos de atributos
         for (String metaKey : Arrays.asList(
@@ -261,13 +178,14 @@ public class AttributeManager {
     /**
      * Reinicia todos los efectos de atributos para un jugador
      * @param player Jugador a resetear
+     * @param session Sesión del jugador
      */
-    public void resetPlayerAttributes(@NotNull Player player) {
+    public void resetPlayerAttributes(@NotNull Player player, @NotNull PlayerSession session) {
         // Limpiar efectos de todos los atributos conocidos
-        for (String attribute : attributes.keySet()) {
-            clearAttributeEffects(player, attribute);
+        for (String attribute : getAttributeNames()) {
+            clearAttributeEffects(player, session, attribute);
         }
-        cleanUpPlayer(player);
+        cleanUpPlayer(player, session);
 
         // Restaurar valores base
         try {
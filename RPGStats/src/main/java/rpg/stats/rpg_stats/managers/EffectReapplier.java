@@ -0,0 +1,151 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vuelve a aplicar los efectos de atributos a los jugadores conectados tras una
+ * recarga. Los jugadores se reparten entre ticks con un presupuesto de
+ * microsegundos por tick, para no recalcular cientos de jugadores en uno solo.
+ * Solo se usa desde el hilo principal.
+ */
+public class EffectReapplier {
+    private final JavaPlugin plugin;
+    private final PlayerProgress progress;
+    private Pass current;
+
+    public EffectReapplier(@NotNull JavaPlugin plugin, @NotNull PlayerProgress progress) {
+        this.plugin = Objects.requireNonNull(plugin);
+        this.progress = Objects.requireNonNull(progress);
+    }
+
+    /**
+     * Empieza una pasada sobre todos los jugadores conectados. Si había otra en
+     * curso se cancela: la nueva ya incluye a todos con la configuración más reciente.
+     */
+    public @NotNull Pass start(long budgetMicros) {
+        cancel();
+
+        List<UUID> players = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            players.add(player.getUniqueId());
+        }
+
+        Pass pass = new Pass(players, TimeUnit.MICROSECONDS.toNanos(Math.max(1, budgetMicros)));
+        current = pass;
+        if (players.isEmpty()) {
+            pass.finish();
+        } else {
+            pass.task = Bukkit.getScheduler().runTaskTimer(plugin, pass::tick, 1L, 1L);
+        }
+        return pass;
+    }
+
+    /**
+     * @return la pasada en curso o la última terminada, null si no ha habido ninguna
+     */
+    public @Nullable Pass getCurrent() {
+        return current;
+    }
+
+    public void cancel() {
+        if (current != null && !current.isDone()) {
+            current.cancel();
+        }
+    }
+
+    public final class Pass {
+        private final ArrayDeque<UUID> queue;
+        private final int total;
+        private final long budgetNanos;
+        private final CompletableFuture<Pass> completion = new CompletableFuture<>();
+        private BukkitTask task;
+        private int processed;
+        private int ticks;
+        private long busyNanos;
+
+        private Pass(@NotNull List<UUID> players, long budgetNanos) {
+            this.queue = new ArrayDeque<>(players);
+            this.total = players.size();
+            this.budgetNanos = budgetNanos;
+        }
+
+        private void tick() {
+            long start = System.nanoTime();
+            long deadline = start + budgetNanos;
+            ticks++;
+
+            // Al menos un jugador por tick para avanzar aunque el presupuesto sea muy bajo
+            do {
+                UUID playerId = queue.poll();
+                Player player = Bukkit.getPlayer(playerId);
+                // Los que se desconectaron durante la pasada se saltan
+                if (player != null && progress.getSession(playerId) != null) {
+                    try {
+                        progress.applyAllAttributeEffects(player);
+                    } catch (RuntimeException e) {
+                        plugin.getLogger().warning("Error al reaplicar efectos a " + player.getName() + ": " + e.getMessage());
+                    }
+                }
+                processed++;
+            } while (!queue.isEmpty() && System.nanoTime() < deadline);
+
+            busyNanos += System.nanoTime() - start;
+            if (queue.isEmpty()) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            if (task != null) {
+                task.cancel();
+            }
+            completion.complete(this);
+        }
+
+        private void cancel() {
+            if (task != null) {
+                task.cancel();
+            }
+            queue.clear();
+            completion.completeExceptionally(new CancellationException("Reaplicación interrumpida por una nueva recarga"));
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getProcessed() {
+            return processed;
+        }
+
+        public int getTicks() {
+            return ticks;
+        }
+
+        public double getBusyMillis() {
+            return busyNanos / 1_000_000.0;
+        }
+
+        public boolean isDone() {
+            return completion.isDone();
+        }
+
+        /**
+         * Se completa en el hilo principal al procesar el último jugador, o de forma
+         * excepcional si otra recarga la sustituye.
+         */
+        public @NotNull CompletableFuture<Pass> getCompletion() {
+            return completion;
+        }
+    }
+}
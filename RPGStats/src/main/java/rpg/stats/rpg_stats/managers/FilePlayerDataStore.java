@@ -0,0 +1,210 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Un archivo binario por jugador en {@code playerdata/<uuid>.dat}.
+ * Lee también los {@code <uuid>.yml} antiguos y los borra al reescribirlos.
+ * Si se usa otro almacenamiento, sirve de origen para migrar y {@link #retire} aparta
+ * los archivos ya migrados.
+ */
+public class FilePlayerDataStore implements PlayerDataStore {
+    private static final Comparator<RankingEntry> RANKING_ORDER =
+            Comparator.comparingInt(RankingEntry::level).thenComparingDouble(RankingEntry::xp);
+
+    private final File folder;
+    private final Logger logger;
+    private final Supplier<PlayerData> defaults;
+
+    public FilePlayerDataStore(@NotNull File folder, @NotNull Logger logger, @NotNull Supplier<PlayerData> defaults) {
+        this.folder = Objects.requireNonNull(folder);
+        this.logger = Objects.requireNonNull(logger);
+        this.defaults = Objects.requireNonNull(defaults);
+    }
+
+    @Override
+    public @Nullable PlayerData load(@NotNull UUID playerId) throws IOException {
+        File file = dataFile(playerId);
+        if (file.exists()) {
+            PlayerData pd = PlayerDataCodec.decode(Files.readAllBytes(file.toPath()));
+            pd.markSaved(pd.getVersion());
+            return pd;
+        }
+
+        File legacyFile = legacyDataFile(playerId);
+        if (!legacyFile.exists()) {
+            return null;
+        }
+        // Sin marcar como guardado: el siguiente vaciado lo reescribe en binario
+        return readLegacyPlayerData(legacyFile);
+    }
+
+    @Override
+    public boolean supportsConcurrentWrites() {
+        // Cada jugador va en su propio archivo
+        return true;
+    }
+
+    @Override
+    public void saveAll(@NotNull Collection<PlayerDataSnapshot> snapshots) throws IOException {
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio de datos");
+        }
+        for (PlayerDataSnapshot snapshot : snapshots) {
+            write(snapshot);
+        }
+    }
+
+    private void write(@NotNull PlayerDataSnapshot snapshot) throws IOException {
+        // Escribir a un temporal y renombrar: un corte a mitad no deja el archivo a medias
+        Path target = dataFile(snapshot.playerId()).toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, PlayerDataCodec.encode(snapshot));
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // Migración perezosa: una vez escrito el binario, el YAML antiguo sobra
+        Files.deleteIfExists(legacyDataFile(snapshot.playerId()).toPath());
+    }
+
+    @Override
+    public void delete(@NotNull UUID playerId) throws IOException {
+        Files.deleteIfExists(dataFile(playerId).toPath());
+        Files.deleteIfExists(legacyDataFile(playerId).toPath());
+    }
+
+    /**
+     * Renombra los archivos del jugador a {@code .migrated} una vez copiados a otro
+     * almacenamiento, para que no se vuelvan a leer si se vuelve a cambiar de tipo.
+     * Se renombran en vez de borrarse para poder recuperarlos a mano.
+     */
+    public void retire(@NotNull UUID playerId) throws IOException {
+        for (File file : new File[]{dataFile(playerId), legacyDataFile(playerId)}) {
+            Path path = file.toPath();
+            if (Files.exists(path)) {
+                Files.move(path, path.resolveSibling(file.getName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Sin índice: recorre todos los archivos. Solo para consultas puntuales de administración.
+     */
+    @Override
+    public @NotNull List<RankingEntry> topByLevel(int limit) throws IOException {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".dat") || name.endsWith(".yml"));
+        if (files == null || limit <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<RankingEntry> top = new PriorityQueue<>(limit + 1, RANKING_ORDER);
+        Set<UUID> seen = new HashSet<>();
+        for (File file : files) {
+            String name = file.getName();
+            UUID playerId;
+            try {
+                playerId = UUID.fromString(name.substring(0, name.length() - 4));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (!seen.add(playerId)) {
+                continue;
+            }
+
+            PlayerData pd;
+            try {
+                pd = load(playerId);
+            } catch (IOException e) {
+                logger.warning("Datos ilegibles en " + name + ": " + e.getMessage());
+                continue;
+            }
+            if (pd == null) {
+                continue;
+            }
+
+            top.add(new RankingEntry(playerId, pd.getLevel(), pd.getXp(), pd.getPlayerClass()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<RankingEntry> result = new ArrayList<>(top);
+        result.sort(RANKING_ORDER.reversed());
+        return result;
+    }
+
+    @Override
+    public void close() {
+        // Nada que liberar: cada operación abre y cierra su archivo
+    }
+
+    private @NotNull File dataFile(@NotNull UUID playerId) {
+        return new File(folder, playerId + ".dat");
+    }
+
+    private @NotNull File legacyDataFile(@NotNull UUID playerId) {
+        return new File(folder, playerId + ".yml");
+    }
+
+    private @NotNull PlayerData readLegacyPlayerData(@NotNull File file) throws IOException {
+        try {
+            YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
+
+            // Verificar estructura básica
+            if (!data.isConfigurationSection("player-data")) {
+                throw new IOException("Estructura de datos inválida");
+            }
+
+            PlayerData base = defaults.get();
+
+            // Cargar datos básicos
+            int level = data.getInt("player-data.level", base.getLevel());
+            float xp = (float) data.getDouble("player-data.xp", base.getXp());
+            int availablePoints = data.getInt("player-data.available-points", base.getAvailablePoints());
+
+            // Cargar atributos
+            int strength = data.getInt("player-data.attributes.strength", base.getStrength());
+            int dexterity = data.getInt("player-data.attributes.dexterity", base.getDexterity());
+            int constitution = data.getInt("player-data.attributes.constitution", base.getConstitution());
+
+            // Cargar maná
+            int mana = data.getInt("player-data.mana", base.getMana());
+            int maxMana = data.getInt("player-data.max-mana", base.getMaxMana());
+
+            // Cargar clase
+            String playerClass = data.getString("player-data.class", base.getPlayerClass());
+
+            // Crear PlayerData
+            PlayerData pd = new PlayerData(level, xp, availablePoints, strength, dexterity,
+                    constitution, mana, maxMana, playerClass);
+
+            // Cargar metadata
+            ConfigurationSection metadata = data.getConfigurationSection("player-data.metadata");
+            if (metadata != null) {
+                metadata.getValues(false).forEach((key, value) -> pd.setMetadata(key, (int) value));
+            }
+            return pd;
+
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Fórmula de bonificación compilada una vez al cargar la configuración.
+ * <p>
+ * Admite números, la variable {@code value}, {@code + - * / ^} con su precedencia
+ * habitual, paréntesis, menos unario y las funciones {@code min}, {@code max} y
+ * {@code pow}. El resultado es un árbol de lambdas: evaluarlo no reserva memoria.
+ */
+@FunctionalInterface
+public interface Formula {
+    double evaluate(double value);
+
+    /**
+     * @throws IllegalArgumentException si la fórmula no es válida, con la posición del error
+     */
+    static @NotNull Formula compile(@NotNull String source) {
+        return new Parser(source).parse();
+    }
+
+    final class Parser {
+        private final String source;
+        private int position;
+
+        private Parser(@NotNull String source) {
+            this.source = source;
+        }
+
+        private Formula parse() {
+            Formula formula = parseExpression();
+            skipWhitespace();
+            if (position < source.length()) {
+                throw error("carácter inesperado '" + source.charAt(position) + "'");
+            }
+            return formula;
+        }
+
+        // expresión := término (('+' | '-') término)*
+        private Formula parseExpression() {
+            Formula left = parseTerm();
+            while (true) {
+                if (accept('+')) {
+                    Formula a = left, b = parseTerm();
+                    left = v -> a.evaluate(v) + b.evaluate(v);
+                } else if (accept('-')) {
+                    Formula a = left, b = parseTerm();
+                    left = v -> a.evaluate(v) - b.evaluate(v);
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        // término := unario (('*' | '/') unario)*
+        private Formula parseTerm() {
+            Formula left = parseUnary();
+            while (true) {
+                if (accept('*')) {
+                    Formula a = left, b = parseUnary();
+                    left = v -> a.evaluate(v) * b.evaluate(v);
+                } else if (accept('/')) {
+                    Formula a = left, b = parseUnary();
+                    left = v -> a.evaluate(v) / b.evaluate(v);
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        // unario := '-' unario | potencia
+        private Formula parseUnary() {
+            if (accept('-')) {
+                Formula operand = parseUnary();
+                return v -> -operand.evaluate(v);
+            }
+            return parsePower();
+        }
+
+        // potencia := primario ('^' unario)?  (asociativa por la derecha)
+        private Formula parsePower() {
+            Formula base = parsePrimary();
+            if (accept('^')) {
+                Formula exponent = parseUnary();
+                return v -> Math.pow(base.evaluate(v), exponent.evaluate(v));
+            }
+            return base;
+        }
+
+        private Formula parsePrimary() {
+            skipWhitespace();
+            if (position >= source.length()) {
+                throw error("fin inesperado de la fórmula");
+            }
+
+            char c = source.charAt(position);
+            if (accept('(')) {
+                Formula inner = parseExpression();
+                expect(')');
+                return inner;
+            }
+            if (Character.isDigit(c) || c == '.') {
+                double constant = parseNumber();
+                return v -> constant;
+            }
+            if (Character.isLetter(c)) {
+                String name = parseIdentifier();
+                if (name.equals("value")) {
+                    return v -> v;
+                }
+                return parseFunction(name);
+            }
+            throw error("carácter inesperado '" + c + "'");
+        }
+
+        private Formula parseFunction(@NotNull String name) {
+            if (!name.equals("min") && !name.equals("max") && !name.equals("pow")) {
+                throw error("función o variable desconocida '" + name + "'");
+            }
+            expect('(');
+            Formula a = parseExpression();
+            expect(',');
+            Formula b = parseExpression();
+            expect(')');
+
+            return switch (name) {
+                case "min" -> v -> Math.min(a.evaluate(v), b.evaluate(v));
+                case "max" -> v -> Math.max(a.evaluate(v), b.evaluate(v));
+                default -> v -> Math.pow(a.evaluate(v), b.evaluate(v));
+            };
+        }
+
+        private double parseNumber() {
+            int start = position;
+            while (position < source.length()
+                    && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(source.substring(start, position));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("número inválido");
+            }
+        }
+
+        private String parseIdentifier() {
+            int start = position;
+            while (position < source.length() && Character.isLetterOrDigit(source.charAt(position))) {
+                position++;
+            }
+            return source.substring(start, position).toLowerCase();
+        }
+
+        private boolean accept(char expected) {
+            skipWhitespace();
+            if (position < source.length() && source.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) {
+            if (!accept(expected)) {
+                throw error("se esperaba '" + expected + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(@NotNull String message) {
+            return new IllegalArgumentException(message + " en la posición " + (position + 1));
+        }
+    }
+}
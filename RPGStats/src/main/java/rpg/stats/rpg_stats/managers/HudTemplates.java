@@ -0,0 +1,415 @@
+package rpg.stats.rpg_stats.managers;
+
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Plantillas del HUD y del mensaje de XP ganada, compiladas desde {@code xp-display}
+ * y {@code messages}. Los códigos de color {@code &} se resuelven al cargar y la
+ * barra de progreso está prerenderizada para cada paso, así que al dibujar solo se
+ * sustituyen los números. También guarda el modo del HUD (action bar, barra de jefe
+ * o ambos), el aspecto de la barra de jefe y los prefijos de nivel de la lista de
+ * jugadores.
+ */
+public final class HudTemplates {
+    public enum Mode {
+        ACTIONBAR, BOSSBAR, BOTH;
+
+        public boolean usesActionBar() {
+            return this != BOSSBAR;
+        }
+
+        public boolean usesBossBar() {
+            return this != ACTIONBAR;
+        }
+    }
+
+    static final String DEFAULT_FORMAT = "&eNivel {level} &7| &b{xp}&7/&b{needed} XP &7[{bar}&7]";
+    static final String DEFAULT_XP_GAIN = "&a+{amount} XP &7({reason})";
+    static final String DEFAULT_BOSSBAR_TITLE = "&eNivel {level} &7- &b{percent}%";
+    static final String DEFAULT_SIDEBAR_TITLE = "&6&lEstadísticas";
+    static final List<String> DEFAULT_SIDEBAR_LINES = List.of(
+            "&eNivel: &a{level}",
+            "&eXP: &b{xp}&7/&b{needed}",
+            "&eManá: &b{mana}&7/&b{max_mana}",
+            "&eClase: &a{class}",
+            "&ePuntos: &6{points}");
+    static final String DEFAULT_LEVEL_PREFIX = "&7[&eLv {level}&7] ";
+    // Marcadores de los prefijos de nivel
+    public static final List<String> LEVEL_PREFIX_SLOTS = List.of("level", "class");
+    // Marcadores de la barra lateral, en el orden de los valores que recibe
+    public static final List<String> SIDEBAR_SLOTS = List.of("level", "xp", "needed", "mana", "max_mana", "points", "class");
+    // Líneas como máximo en la barra lateral del cliente
+    public static final int MAX_SIDEBAR_LINES = 15;
+
+    // Colores legacy en el orden de sus códigos 0-9a-f
+    private static final NamedTextColor[] LEGACY_COLORS = {
+            NamedTextColor.BLACK, NamedTextColor.DARK_BLUE, NamedTextColor.DARK_GREEN, NamedTextColor.DARK_AQUA,
+            NamedTextColor.DARK_RED, NamedTextColor.DARK_PURPLE, NamedTextColor.GOLD, NamedTextColor.GRAY,
+            NamedTextColor.DARK_GRAY, NamedTextColor.BLUE, NamedTextColor.GREEN, NamedTextColor.AQUA,
+            NamedTextColor.RED, NamedTextColor.LIGHT_PURPLE, NamedTextColor.YELLOW, NamedTextColor.WHITE
+    };
+
+    private final Mode mode;
+    private final Template actionBar;
+    private final Template xpGain;
+    // Índice = segmentos llenos (0..barLength)
+    private final Component[] progressBars;
+    private final Template bossBarTitle;
+    private final BossBar.Color bossBarColor;
+    private final BossBar.Overlay bossBarOverlay;
+    private final int bossBarIdleTicks;
+    private final boolean sidebarEnabled;
+    private final Component sidebarTitle;
+    private final Template[] sidebarLines;
+    private final boolean levelPrefixEnabled;
+    private final int levelBucketSize;
+    private final Template levelPrefix;
+    private final Template levelSuffix;
+
+    private HudTemplates(Mode mode, Template actionBar, Template xpGain, Component[] progressBars,
+                         Template bossBarTitle, BossBar.Color bossBarColor, BossBar.Overlay bossBarOverlay,
+                         int bossBarIdleTicks, boolean sidebarEnabled, Component sidebarTitle,
+                         Template[] sidebarLines, boolean levelPrefixEnabled, int levelBucketSize,
+                         Template levelPrefix, Template levelSuffix) {
+        this.mode = mode;
+        this.actionBar = actionBar;
+        this.xpGain = xpGain;
+        this.progressBars = progressBars;
+        this.bossBarTitle = bossBarTitle;
+        this.bossBarColor = bossBarColor;
+        this.bossBarOverlay = bossBarOverlay;
+        this.bossBarIdleTicks = bossBarIdleTicks;
+        this.sidebarEnabled = sidebarEnabled;
+        this.sidebarTitle = sidebarTitle;
+        this.sidebarLines = sidebarLines;
+        this.levelPrefixEnabled = levelPrefixEnabled;
+        this.levelBucketSize = levelBucketSize;
+        this.levelPrefix = levelPrefix;
+        this.levelSuffix = levelSuffix;
+    }
+
+    public @NotNull Mode getMode() {
+        return mode;
+    }
+
+    public @NotNull BossBar.Color getBossBarColor() {
+        return bossBarColor;
+    }
+
+    public @NotNull BossBar.Overlay getBossBarOverlay() {
+        return bossBarOverlay;
+    }
+
+    /**
+     * @return ticks sin cambios tras los que se oculta la barra de jefe (0 = nunca)
+     */
+    public int getBossBarIdleTicks() {
+        return bossBarIdleTicks;
+    }
+
+    public boolean isSidebarEnabled() {
+        return sidebarEnabled;
+    }
+
+    public @NotNull Component getSidebarTitle() {
+        return sidebarTitle;
+    }
+
+    public int getSidebarLineCount() {
+        return sidebarLines.length;
+    }
+
+    /**
+     * @return bits de {@link #SIDEBAR_SLOTS} que usa la línea
+     */
+    public int getSidebarLineSlots(int line) {
+        return sidebarLines[line].getSlotMask();
+    }
+
+    /**
+     * @param values valores en el orden de {@link #SIDEBAR_SLOTS}
+     */
+    public @NotNull Component renderSidebarLine(int line, @NotNull Object[] values) {
+        return sidebarLines[line].render(values);
+    }
+
+    public boolean isLevelPrefixEnabled() {
+        return levelPrefixEnabled;
+    }
+
+    /**
+     * @return primer nivel del tramo al que pertenece {@code level}; los jugadores del
+     * mismo tramo y clase comparten equipo
+     */
+    public int getLevelBucket(int level) {
+        return Math.max(1, level / levelBucketSize * levelBucketSize);
+    }
+
+    public @NotNull Component renderLevelPrefix(int bucket, @NotNull String className) {
+        return levelPrefix.render(Integer.toString(bucket), className);
+    }
+
+    public @NotNull Component renderLevelSuffix(int bucket, @NotNull String className) {
+        return levelSuffix.render(Integer.toString(bucket), className);
+    }
+
+    public int getBarLength() {
+        return progressBars.length - 1;
+    }
+
+    /**
+     * @param xpTenths     XP actual en décimas
+     * @param neededTenths XP necesaria para el siguiente nivel en décimas
+     */
+    public @NotNull Component renderActionBar(int level, int xpTenths, int neededTenths) {
+        int length = getBarLength();
+        int filled = neededTenths > 0 ? (int) ((long) xpTenths * length / neededTenths) : 0;
+        Component bar = progressBars[Math.max(0, Math.min(length, filled))];
+        return actionBar.render(Integer.toString(level), formatTenths(xpTenths), formatTenths(neededTenths), bar);
+    }
+
+    public @NotNull Component renderXpGain(float amount, @NotNull String reason) {
+        return xpGain.render(formatTenths(Math.round(amount * 10)), reason);
+    }
+
+    public @NotNull Component renderBossBarTitle(int level, int percent) {
+        return bossBarTitle.render(Integer.toString(level), Integer.toString(percent));
+    }
+
+    // Equivalente a "%.1f" sin pasar por Formatter
+    static @NotNull String formatTenths(int tenths) {
+        if (tenths < 0) {
+            return "-" + formatTenths(-tenths);
+        }
+        return (tenths / 10) + "." + (tenths % 10);
+    }
+
+    public static @NotNull HudTemplates compile(@NotNull ConfigurationSection config, @NotNull Logger logger) {
+        Template actionBar = Template.parse(config.getString("xp-display.format", DEFAULT_FORMAT),
+                List.of("level", "xp", "needed", "bar"), "xp-display.format", logger);
+        Template xpGain = Template.parse(config.getString("messages.xp-gain", DEFAULT_XP_GAIN),
+                List.of("amount", "reason"), "messages.xp-gain", logger);
+
+        int length = Math.max(1, Math.min(100, config.getInt("xp-display.progress-bar-length", 10)));
+        Style filled = parseColor(config.getString("xp-display.colors.filled", "&a"), NamedTextColor.GREEN);
+        Style empty = parseColor(config.getString("xp-display.colors.empty", "&7"), NamedTextColor.GRAY);
+
+        Component[] progressBars = new Component[length + 1];
+        for (int step = 0; step <= length; step++) {
+            TextComponent.Builder bar = Component.text();
+            if (step > 0) {
+                bar.append(Component.text("|".repeat(step), filled));
+            }
+            if (step < length) {
+                bar.append(Component.text("|".repeat(length - step), empty));
+            }
+            progressBars[step] = bar.build();
+        }
+
+        Template bossBarTitle = Template.parse(config.getString("xp-display.bossbar.title", DEFAULT_BOSSBAR_TITLE),
+                List.of("level", "percent"), "xp-display.bossbar.title", logger);
+
+        return new HudTemplates(
+                parseEnum(Mode.class, config.getString("xp-display.mode", "actionbar"), Mode.ACTIONBAR,
+                        "xp-display.mode", logger),
+                actionBar, xpGain, progressBars, bossBarTitle,
+                parseEnum(BossBar.Color.class, config.getString("xp-display.bossbar.color", "green"),
+                        BossBar.Color.GREEN, "xp-display.bossbar.color", logger),
+                parseEnum(BossBar.Overlay.class, config.getString("xp-display.bossbar.overlay", "progress"),
+                        BossBar.Overlay.PROGRESS, "xp-display.bossbar.overlay", logger),
+                (int) Math.max(0, Math.round(config.getDouble("xp-display.bossbar.hide-after", 10.0) * 20)),
+                config.getBoolean("sidebar.enabled", false),
+                Template.parse(config.getString("sidebar.title", DEFAULT_SIDEBAR_TITLE), List.of(),
+                        "sidebar.title", logger).render(),
+                compileSidebarLines(config, logger),
+                config.getBoolean("level-prefix.enabled", false),
+                Math.max(1, config.getInt("level-prefix.bucket-size", 1)),
+                Template.parse(config.getString("level-prefix.prefix", DEFAULT_LEVEL_PREFIX),
+                        LEVEL_PREFIX_SLOTS, "level-prefix.prefix", logger),
+                Template.parse(config.getString("level-prefix.suffix", ""),
+                        LEVEL_PREFIX_SLOTS, "level-prefix.suffix", logger));
+    }
+
+    private static @NotNull Template[] compileSidebarLines(@NotNull ConfigurationSection config,
+                                                           @NotNull Logger logger) {
+        List<String> lines = config.isList("sidebar.lines")
+                ? config.getStringList("sidebar.lines")
+                : DEFAULT_SIDEBAR_LINES;
+        if (lines.size() > MAX_SIDEBAR_LINES) {
+            logger.warning("sidebar.lines tiene " + lines.size() + " líneas; solo se muestran las "
+                    + MAX_SIDEBAR_LINES + " primeras");
+            lines = lines.subList(0, MAX_SIDEBAR_LINES);
+        }
+
+        Template[] templates = new Template[lines.size()];
+        for (int i = 0; i < templates.length; i++) {
+            templates[i] = Template.parse(lines.get(i), SIDEBAR_SLOTS, "sidebar.lines", logger);
+        }
+        return templates;
+    }
+
+    private static <E extends Enum<E>> @NotNull E parseEnum(@NotNull Class<E> type, @NotNull String value,
+                                                            @NotNull E fallback, @NotNull String path,
+                                                            @NotNull Logger logger) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            logger.warning("Valor desconocido en " + path + ": '" + value + "'; se usa '"
+                    + fallback.name().toLowerCase(Locale.ROOT) + "'");
+            return fallback;
+        }
+    }
+
+    private static @NotNull Style parseColor(@NotNull String codes, @NotNull NamedTextColor fallback) {
+        Style style = Style.style(fallback);
+        for (int i = 0; i + 1 < codes.length(); i++) {
+            char c = codes.charAt(i);
+            if (c == '&' || c == '§') {
+                Style next = applyCode(style, codes.charAt(i + 1));
+                if (next != null) {
+                    style = next;
+                    i++;
+                }
+            }
+        }
+        return style;
+    }
+
+    /**
+     * @return el estilo tras aplicar el código legacy, o null si no es un código válido
+     */
+    private static @Nullable Style applyCode(@NotNull Style style, char code) {
+        char lower = Character.toLowerCase(code);
+        int color = "0123456789abcdef".indexOf(lower);
+        if (color >= 0) {
+            // Como en el formato legacy, un color reinicia los decorados
+            return Style.style(LEGACY_COLORS[color]);
+        }
+        return switch (lower) {
+            case 'k' -> style.decorate(TextDecoration.OBFUSCATED);
+            case 'l' -> style.decorate(TextDecoration.BOLD);
+            case 'm' -> style.decorate(TextDecoration.STRIKETHROUGH);
+            case 'n' -> style.decorate(TextDecoration.UNDERLINED);
+            case 'o' -> style.decorate(TextDecoration.ITALIC);
+            case 'r' -> Style.empty();
+            default -> null;
+        };
+    }
+
+    /**
+     * Texto con marcadores {@code {nombre}}: los tramos fijos ya son componentes y
+     * cada marcador guarda el estilo activo en su posición.
+     */
+    static final class Template {
+        private final Component[] literals;
+        // Para cada parte: -1 si es literal, si no el índice del valor a sustituir
+        private final int[] slots;
+        private final Style[] styles;
+        // Bit i activo si la plantilla usa el valor i
+        private final int slotMask;
+
+        private Template(Component[] literals, int[] slots, Style[] styles) {
+            this.literals = literals;
+            this.slots = slots;
+            this.styles = styles;
+
+            int mask = 0;
+            for (int slot : slots) {
+                if (slot >= 0) {
+                    mask |= 1 << slot;
+                }
+            }
+            this.slotMask = mask;
+        }
+
+        int getSlotMask() {
+            return slotMask;
+        }
+
+        /**
+         * Los valores de tipo {@link Component} se insertan tal cual; el resto como
+         * texto con el estilo del marcador.
+         */
+        @NotNull Component render(@NotNull Object... values) {
+            TextComponent.Builder builder = Component.text();
+            for (int i = 0; i < slots.length; i++) {
+                int slot = slots[i];
+                if (slot < 0) {
+                    builder.append(literals[i]);
+                } else if (values[slot] instanceof Component component) {
+                    builder.append(component);
+                } else {
+                    builder.append(Component.text(String.valueOf(values[slot]), styles[i]));
+                }
+            }
+            return builder.build();
+        }
+
+        static @NotNull Template parse(@NotNull String source, @NotNull List<String> names,
+                                       @NotNull String path, @NotNull Logger logger) {
+            List<Component> literals = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            List<Style> styles = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+            Style style = Style.empty();
+
+            for (int i = 0; i < source.length(); i++) {
+                char c = source.charAt(i);
+                if ((c == '&' || c == '§') && i + 1 < source.length()) {
+                    Style next = applyCode(style, source.charAt(i + 1));
+                    if (next != null) {
+                        flush(text, style, literals, slots, styles);
+                        style = next;
+                        i++;
+                        continue;
+                    }
+                }
+
+                if (c == '{') {
+                    int end = source.indexOf('}', i);
+                    if (end > i) {
+                        int slot = names.indexOf(source.substring(i + 1, end));
+                        if (slot >= 0) {
+                            flush(text, style, literals, slots, styles);
+                            literals.add(null);
+                            slots.add(slot);
+                            styles.add(style);
+                            i = end;
+                            continue;
+                        }
+                        logger.warning("Marcador desconocido en " + path + ": '" + source.substring(i, end + 1)
+                                + "'; disponibles: " + names);
+                    }
+                }
+                text.append(c);
+            }
+            flush(text, style, literals, slots, styles);
+
+            return new Template(literals.toArray(new Component[0]),
+                    slots.stream().mapToInt(Integer::intValue).toArray(),
+                    styles.toArray(new Style[0]));
+        }
+
+        private static void flush(@NotNull StringBuilder text, @NotNull Style style, @NotNull List<Component> literals,
+                                  @NotNull List<Integer> slots, @NotNull List<Style> styles) {
+            if (text.length() == 0) return;
+            literals.add(Component.text(text.toString(), style));
+            slots.add(-1);
+            styles.add(style);
+            text.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Curva de niveles precalculada al cargar la sección {@code levels}: XP para pasar
+ * de cada nivel al siguiente, XP acumulada desde el nivel 1 y puntos por nivel.
+ * <p>
+ * {@code xp-curve} admite:
+ * <ul>
+ *     <li>{@code linear}: xp-base + xp-increment * nivel</li>
+ *     <li>{@code exponential}: xp-base + xp-increment * nivel * xp-scaling^nivel</li>
+ *     <li>{@code table}: lista {@code xp-table}, un valor por nivel empezando en el 1</li>
+ * </ul>
+ * El antiguo {@code xp-growth-type} nunca se aplicó y se sigue ignorando: los
+ * config.yml existentes traen {@code "linear"} y honrarlo cambiaría la curva de los
+ * servidores en marcha al actualizar. Cambiar la curva requiere poner {@code xp-curve}.
+ */
+public final class LevelCurve {
+    private final int maxLevel;
+    private final int manaPerLevel;
+    private final int basePoints;
+    private final int extraPointInterval;
+    private final int extraPointAmount;
+
+    // Índice = nivel actual (1..maxLevel); la posición 0 no se usa
+    private final float[] xpToNext;
+    private final double[] cumulativeXp;
+    private final int[] pointsForLevel;
+    private final int[] cumulativePoints;
+
+    private LevelCurve(int maxLevel, int manaPerLevel, int basePoints, int extraPointInterval, int extraPointAmount,
+                       float[] xpToNext, double[] cumulativeXp, int[] pointsForLevel, int[] cumulativePoints) {
+        this.maxLevel = maxLevel;
+        this.manaPerLevel = manaPerLevel;
+        this.basePoints = basePoints;
+        this.extraPointInterval = extraPointInterval;
+        this.extraPointAmount = extraPointAmount;
+        this.xpToNext = xpToNext;
+        this.cumulativeXp = cumulativeXp;
+        this.pointsForLevel = pointsForLevel;
+        this.cumulativePoints = cumulativePoints;
+    }
+
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    public int getManaPerLevel() {
+        return manaPerLevel;
+    }
+
+    /**
+     * @return XP necesaria para pasar del nivel indicado al siguiente
+     */
+    public float getXPForNextLevel(int level) {
+        return xpToNext[clamp(level)];
+    }
+
+    /**
+     * @return XP total necesaria para llegar al nivel indicado desde el nivel 1
+     */
+    public double getCumulativeXP(int level) {
+        return cumulativeXp[clamp(level)];
+    }
+
+    /**
+     * @return puntos de atributo que se obtienen al alcanzar el nivel indicado
+     */
+    public int getPointsForLevel(int level) {
+        return level >= 1 && level <= maxLevel ? pointsForLevel[level] : calculatePoints(level);
+    }
+
+    /**
+     * @return puntos obtenidos al subir de {@code fromLevel} a {@code toLevel}
+     */
+    public int getPointsBetween(int fromLevel, int toLevel) {
+        if (toLevel <= fromLevel) return 0;
+        int points = cumulativePoints[clamp(toLevel)] - cumulativePoints[clamp(fromLevel)];
+        // Por encima del máximo solo se llega con setlevel por comando
+        for (int level = Math.max(fromLevel, maxLevel) + 1; level <= toLevel; level++) {
+            points += calculatePoints(level);
+        }
+        return points;
+    }
+
+    private int calculatePoints(int level) {
+        int extraPoints = extraPointInterval > 0 && level % extraPointInterval == 0 ? extraPointAmount : 0;
+        return basePoints + extraPoints;
+    }
+
+    /**
+     * Nivel final tras acumular {@code xp} sobre {@code level}, con una búsqueda
+     * binaria sobre la XP acumulada en lugar de subir nivel a nivel.
+     */
+    public int resolveLevel(int level, double xp) {
+        int current = clamp(level);
+        if (current >= maxLevel) return level;
+
+        double total = cumulativeXp[current] + xp;
+        if (total < cumulativeXp[current + 1]) return level;
+
+        // Mayor nivel cuya XP acumulada no supera el total
+        int low = current + 1;
+        int high = maxLevel;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (cumulativeXp[mid] <= total) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private int clamp(int level) {
+        return Math.max(1, Math.min(level, maxLevel));
+    }
+
+    public static @NotNull LevelCurve compile(@NotNull ConfigurationSection config, @NotNull Logger logger) {
+        int maxLevel = Math.max(1, config.getInt("levels.max-level", 100));
+        int base = config.getInt("levels.xp-base", 100);
+        int increment = config.getInt("levels.xp-increment", 50);
+        float scaling = (float) config.getDouble("levels.xp-scaling", 1.1);
+        String growthType = config.getString("levels.xp-curve", "exponential").toLowerCase(Locale.ROOT);
+        if (!config.isSet("levels.xp-curve") && config.isSet("levels.xp-growth-type")
+                && !"exponential".equalsIgnoreCase(config.getString("levels.xp-growth-type"))) {
+            logger.info("levels.xp-growth-type se ignora; se usa la curva 'exponential'. "
+                    + "Para cambiarla usa levels.xp-curve");
+        }
+        List<Double> table = config.getDoubleList("levels.xp-table");
+
+        if (growthType.equals("table") && table.isEmpty()) {
+            logger.warning("levels.xp-curve es 'table' pero levels.xp-table está vacía; se usa 'exponential'");
+            growthType = "exponential";
+        } else if (!growthType.equals("table") && !growthType.equals("linear") && !growthType.equals("exponential")) {
+            logger.warning("levels.xp-curve desconocido: '" + growthType + "'; se usa 'exponential'");
+            growthType = "exponential";
+        } else if (growthType.equals("table") && table.size() < maxLevel - 1) {
+            logger.warning("levels.xp-table tiene " + table.size() + " valores para " + maxLevel
+                    + " niveles; los que faltan repiten el último");
+        }
+
+        float[] xpToNext = new float[maxLevel + 1];
+        double[] cumulativeXp = new double[maxLevel + 1];
+        for (int level = 1; level <= maxLevel; level++) {
+            xpToNext[level] = switch (growthType) {
+                case "linear" -> base + increment * level;
+                case "table" -> table.get(Math.min(level, table.size()) - 1).floatValue();
+                default -> base + (increment * level) * (float) Math.pow(scaling, level);
+            };
+            xpToNext[level] = Math.max(1.0f, xpToNext[level]);
+            if (level < maxLevel) {
+                cumulativeXp[level + 1] = cumulativeXp[level] + xpToNext[level];
+            }
+        }
+
+        LevelCurve curve = new LevelCurve(maxLevel, config.getInt("levels.mana-per-level", 5),
+                config.getInt("levels.points-per-level", 1),
+                config.getInt("levels.extra-point-interval", 5),
+                config.getInt("levels.extra-point-amount", 1),
+                xpToNext, cumulativeXp, new int[maxLevel + 1], new int[maxLevel + 1]);
+
+        for (int level = 1; level <= maxLevel; level++) {
+            curve.pointsForLevel[level] = curve.calculatePoints(level);
+            if (level > 1) {
+                curve.cumulativePoints[level] = curve.cumulativePoints[level - 1] + curve.pointsForLevel[level];
+            }
+        }
+        return curve;
+    }
+}
@@ -0,0 +1,232 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Prefijo de nivel ({@code [Lv 42]}) en la lista de jugadores y sobre la cabeza.
+ * Los jugadores comparten un equipo por tramo de nivel y clase, así que el prefijo se
+ * envía una vez por equipo y no por jugador. Un jugador solo cambia de equipo cuando
+ * cambia su tramo o su clase, y los cambios se agrupan y se aplican una vez por tick.
+ * <p>
+ * Los equipos viven en el marcador principal y se copian a los marcadores propios de
+ * cada jugador (por ejemplo el de la barra lateral), porque el cliente solo ve los
+ * equipos del marcador que tiene asignado. Solo se usa desde el hilo principal.
+ */
+public class LevelPrefixManager {
+    private static final String TEAM_PREFIX = "rpglv_";
+
+    private final JavaPlugin plugin;
+    private final PlayerProgress progress;
+    // Equipos creados, por nombre, con sus miembros
+    private final Map<String, PrefixTeam> teams = new HashMap<>();
+    // Equipo actual de cada jugador
+    private final Map<UUID, String> assigned = new HashMap<>();
+    private final Map<UUID, Player> pending = new LinkedHashMap<>();
+    // Marcadores propios de jugadores a los que hay que copiar los equipos
+    private final Map<UUID, Scoreboard> playerBoards = new HashMap<>();
+    private boolean flushScheduled;
+
+    public LevelPrefixManager(@NotNull JavaPlugin plugin, @NotNull PlayerProgress progress) {
+        this.plugin = Objects.requireNonNull(plugin);
+        this.progress = Objects.requireNonNull(progress);
+        // Los equipos del marcador principal se guardan con el mundo: quitar los de un cierre incorrecto
+        removeStaleTeams(Bukkit.getScoreboardManager().getMainScoreboard());
+    }
+
+    /**
+     * Comprueba si el jugador cambió de tramo o de clase. Es barato si no cambió
+     * nada, así que se puede llamar tras cualquier cambio en sus datos.
+     */
+    public void markChanged(@NotNull Player player, @NotNull PlayerSession session) {
+        HudTemplates hud = progress.getSettings().getHudTemplates();
+        if (!hud.isLevelPrefixEnabled()) return;
+
+        PlayerData pd = session.getData();
+        if (!session.updatePrefixGroup(hud.getLevelBucket(pd.getLevel()), pd.getPlayerClass())) return;
+
+        pending.put(player.getUniqueId(), player);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        HudTemplates hud = progress.getSettings().getHudTemplates();
+
+        for (Player player : pending.values()) {
+            PlayerSession session = progress.getSession(player.getUniqueId());
+            if (session == null || !player.isOnline() || session.getPrefixClass() == null) continue;
+
+            String teamName = TEAM_PREFIX + session.getPrefixBucket() + "_" + session.getPrefixClass();
+            String previous = assigned.put(player.getUniqueId(), teamName);
+            // Volvió al mismo grupo dentro del tick: no hay nada que enviar
+            if (teamName.equals(previous)) continue;
+
+            PrefixTeam team = teams.get(teamName);
+            if (team == null) {
+                team = createTeam(teamName, session.getPrefixBucket(), session.getPrefixClass(), hud);
+            }
+            // Añadir a un equipo ya saca al jugador del anterior en ese marcador
+            String entry = player.getName();
+            team.entries.add(entry);
+            for (Scoreboard board : boards()) {
+                team.get(board).addEntry(entry);
+            }
+            if (previous != null) {
+                leave(entry, previous, false);
+            }
+        }
+        pending.clear();
+    }
+
+    private @NotNull PrefixTeam createTeam(@NotNull String name, int bucket, @NotNull String playerClass,
+                                           @NotNull HudTemplates hud) {
+        String className = "none".equalsIgnoreCase(playerClass)
+                ? "Sin Clase"
+                : progress.getClassManager().getClassDisplayName(playerClass);
+        PrefixTeam team = new PrefixTeam(name, hud, bucket, className);
+        teams.put(name, team);
+        return team;
+    }
+
+    private void leave(@NotNull String entry, @NotNull String teamName, boolean removeEntry) {
+        PrefixTeam team = teams.get(teamName);
+        if (team == null) return;
+
+        team.entries.remove(entry);
+        if (team.entries.isEmpty()) {
+            // Sin miembros se borra para no acumular un equipo por cada nivel alcanzado
+            teams.remove(teamName);
+            for (Scoreboard board : boards()) {
+                Team existing = board.getTeam(teamName);
+                if (existing != null) {
+                    existing.unregister();
+                }
+            }
+        } else if (removeEntry) {
+            for (Scoreboard board : boards()) {
+                Team existing = board.getTeam(teamName);
+                if (existing != null) {
+                    existing.removeEntry(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registra el marcador propio de un jugador y le copia todos los equipos.
+     */
+    public void trackScoreboard(@NotNull Player player, @NotNull Scoreboard board) {
+        if (board == Bukkit.getScoreboardManager().getMainScoreboard()) return;
+        playerBoards.put(player.getUniqueId(), board);
+        for (PrefixTeam team : teams.values()) {
+            Team boardTeam = team.get(board);
+            for (String entry : team.entries) {
+                boardTeam.addEntry(entry);
+            }
+        }
+    }
+
+    public void untrackScoreboard(@NotNull Player player) {
+        Scoreboard board = playerBoards.remove(player.getUniqueId());
+        if (board != null) {
+            removeStaleTeams(board);
+        }
+    }
+
+    public void removePlayer(@NotNull Player player) {
+        UUID playerId = player.getUniqueId();
+        pending.remove(playerId);
+        playerBoards.remove(playerId);
+        String teamName = assigned.remove(playerId);
+        if (teamName != null) {
+            leave(player.getName(), teamName, true);
+        }
+        PlayerSession session = progress.getSession(playerId);
+        if (session != null) {
+            session.resetPrefixGroup();
+        }
+    }
+
+    /**
+     * Rehace todos los equipos con la configuración actual, por ejemplo tras una
+     * recarga que cambie el formato o el tamaño de los tramos.
+     */
+    public void refresh() {
+        clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PlayerSession session = progress.getSession(player.getUniqueId());
+            if (session == null) continue;
+
+            Scoreboard board = player.getScoreboard();
+            if (board != Bukkit.getScoreboardManager().getMainScoreboard()) {
+                playerBoards.put(player.getUniqueId(), board);
+            }
+            session.resetPrefixGroup();
+            markChanged(player, session);
+        }
+    }
+
+    /**
+     * Quita todos los equipos de prefijos de todos los marcadores.
+     */
+    public void clear() {
+        for (Scoreboard board : boards()) {
+            removeStaleTeams(board);
+        }
+        teams.clear();
+        assigned.clear();
+        pending.clear();
+        playerBoards.clear();
+    }
+
+    private @NotNull List<Scoreboard> boards() {
+        List<Scoreboard> boards = new ArrayList<>(playerBoards.size() + 1);
+        boards.add(Bukkit.getScoreboardManager().getMainScoreboard());
+        boards.addAll(playerBoards.values());
+        return boards;
+    }
+
+    private static void removeStaleTeams(@NotNull Scoreboard board) {
+        for (Team team : new ArrayList<>(board.getTeams())) {
+            if (team.getName().startsWith(TEAM_PREFIX)) {
+                team.unregister();
+            }
+        }
+    }
+
+    private static final class PrefixTeam {
+        private final String name;
+        private final HudTemplates hud;
+        private final int bucket;
+        private final String className;
+        private final Set<String> entries = new HashSet<>();
+
+        private PrefixTeam(String name, HudTemplates hud, int bucket, String className) {
+            this.name = name;
+            this.hud = hud;
+            this.bucket = bucket;
+            this.className = className;
+        }
+
+        // Equipo en ese marcador, creado con el prefijo la primera vez
+        private @NotNull Team get(@NotNull Scoreboard board) {
+            Team team = board.getTeam(name);
+            if (team == null) {
+                team = board.registerNewTeam(name);
+                team.prefix(hud.renderLevelPrefix(bucket, className));
+                team.suffix(hud.renderLevelSuffix(bucket, className));
+            }
+            return team;
+        }
+    }
+}
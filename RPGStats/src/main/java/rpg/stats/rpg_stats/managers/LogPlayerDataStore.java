@@ -0,0 +1,435 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Almacén estructurado como registro: cada guardado se añade al final del segmento activo
+ * y un índice en memoria apunta a la última versión de cada jugador.
+ *
+ * <pre>
+ * int  longitud de los datos
+ * int  CRC32 de tipo + uuid + datos
+ * byte tipo (1 = datos, 2 = borrado)
+ * long uuid (bits altos), long uuid (bits bajos)
+ * byte[] datos codificados con {@link PlayerDataCodec}
+ * </pre>
+ *
+ * Al arrancar el índice se reconstruye leyendo los segmentos en orden; una cola
+ * incompleta o corrupta en el último segmento (corte a mitad de escritura) se descarta.
+ * Un hilo en segundo plano reescribe los segmentos cerrados con mayoría de datos obsoletos.
+ */
+public class LogPlayerDataStore implements PlayerDataStore {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 4 + 4 + 1 + 16;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+    // Un segmento se compacta cuando menos de la mitad de sus bytes siguen vigentes
+    private static final double COMPACTION_LIVE_RATIO = 0.5;
+
+    private final File folder;
+    private final Logger logger;
+    private final long segmentMaxBytes;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<UUID, IndexEntry> index = new HashMap<>();
+    private final ScheduledExecutorService compactor;
+    private Segment active;
+
+    public LogPlayerDataStore(@NotNull File folder, @NotNull Logger logger,
+                              long segmentMaxBytes, long compactionIntervalSeconds) throws IOException {
+        this.folder = Objects.requireNonNull(folder);
+        this.logger = Objects.requireNonNull(logger);
+        this.segmentMaxBytes = Math.max(64 * 1024, segmentMaxBytes);
+
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio " + folder.getPath());
+        }
+        recover();
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RPGStats-Compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(10, compactionIntervalSeconds);
+        compactor.scheduleWithFixedDelay(this::compactSafely, interval, interval, TimeUnit.SECONDS);
+    }
+
+    private void recover() throws IOException {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        List<Integer> ids = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warning("Segmento con nombre inválido ignorado: " + name);
+                }
+            }
+        }
+        Collections.sort(ids);
+
+        for (int i = 0; i < ids.size(); i++) {
+            Segment segment = openSegment(ids.get(i));
+            segments.put(segment.id, segment);
+
+            List<LogRecord> records = readRecords(segment);
+            long validLength = records.isEmpty() ? 0 : records.get(records.size() - 1).end();
+            if (validLength < segment.size) {
+                if (i == ids.size() - 1) {
+                    // Escritura interrumpida: se descarta la cola
+                    logger.warning("Descartados " + (segment.size - validLength) + " bytes incompletos en " + segment.path.getFileName());
+                    segment.channel.truncate(validLength);
+                    segment.size = validLength;
+                } else {
+                    logger.warning("Segmento dañado a partir del byte " + validLength + ": " + segment.path.getFileName());
+                }
+            }
+
+            for (LogRecord record : records) {
+                if (record.type() == TYPE_PUT) {
+                    PlayerData pd;
+                    try {
+                        pd = PlayerDataCodec.decode(record.payload());
+                    } catch (IOException e) {
+                        logger.warning("Registro ilegible de " + record.playerId() + ": " + e.getMessage());
+                        continue;
+                    }
+                    updateIndex(record.playerId(), new IndexEntry(segment.id, record.offset(), record.size(),
+                            pd.getLevel(), pd.getXp(), pd.getPlayerClass()));
+                } else {
+                    removeFromIndex(record.playerId());
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            active = openSegment(1);
+            segments.put(active.id, active);
+        } else {
+            active = segments.lastEntry().getValue();
+            if (active.size >= segmentMaxBytes) {
+                rollSegment();
+            }
+        }
+        logger.info("Índice de datos reconstruido: " + index.size() + " jugadores en " + segments.size() + " segmentos");
+    }
+
+    @Override
+    public synchronized @Nullable PlayerData load(@NotNull UUID playerId) throws IOException {
+        IndexEntry entry = index.get(playerId);
+        if (entry == null) {
+            return null;
+        }
+
+        Segment segment = segments.get(entry.segmentId());
+        ByteBuffer buffer = ByteBuffer.allocate(entry.size());
+        readFully(segment.channel, buffer, entry.offset());
+        LogRecord record = parseRecord(buffer.array(), 0, entry.offset());
+        if (record == null || record.type() != TYPE_PUT || !record.playerId().equals(playerId)) {
+            throw new IOException("Registro dañado en " + segment.path.getFileName() + " (byte " + entry.offset() + ")");
+        }
+
+        PlayerData pd = PlayerDataCodec.decode(record.payload());
+        pd.markSaved(pd.getVersion());
+        return pd;
+    }
+
+    /**
+     * Añade todo el lote con una sola escritura secuencial y un único fsync.
+     */
+    @Override
+    public synchronized void saveAll(@NotNull Collection<PlayerDataSnapshot> snapshots) throws IOException {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        List<LogRecord> records = new ArrayList<>(snapshots.size());
+        for (PlayerDataSnapshot snapshot : snapshots) {
+            records.add(new LogRecord(-1, TYPE_PUT, snapshot.playerId(), PlayerDataCodec.encode(snapshot)));
+        }
+        long[] offsets = append(records);
+
+        int i = 0;
+        for (PlayerDataSnapshot snapshot : snapshots) {
+            updateIndex(snapshot.playerId(), new IndexEntry(active.id, offsets[i], records.get(i).size(),
+                    snapshot.level(), snapshot.xp(), snapshot.playerClass()));
+            i++;
+        }
+        rollIfFull();
+    }
+
+    @Override
+    public synchronized void delete(@NotNull UUID playerId) throws IOException {
+        if (!index.containsKey(playerId)) {
+            return;
+        }
+        append(List.of(new LogRecord(-1, TYPE_DELETE, playerId, new byte[0])));
+        removeFromIndex(playerId);
+        rollIfFull();
+    }
+
+    /**
+     * Se resuelve con el índice en memoria, sin leer disco.
+     */
+    @Override
+    public synchronized @NotNull List<RankingEntry> topByLevel(int limit) {
+        return index.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<UUID, IndexEntry> e) -> e.getValue().level())
+                        .thenComparing(e -> e.getValue().xp())
+                        .reversed())
+                .limit(Math.max(0, limit))
+                .map(e -> new RankingEntry(e.getKey(), e.getValue().level(), e.getValue().xp(), e.getValue().playerClass()))
+                .toList();
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactor.shutdownNow();
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+            segments.clear();
+            index.clear();
+        }
+    }
+
+    private void compactSafely() {
+        try {
+            compact();
+        } catch (IOException e) {
+            logger.warning("Error al compactar los datos de jugadores: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reescribe los registros vigentes de los segmentos cerrados poco aprovechados
+     * al final del segmento activo y borra los segmentos antiguos.
+     * El bloqueo se toma por segmento para no frenar los guardados demasiado tiempo.
+     */
+    void compact() throws IOException {
+        List<Integer> candidates;
+        synchronized (this) {
+            candidates = new ArrayList<>();
+            for (Segment segment : segments.values()) {
+                if (segment != active && segment.liveBytes < segment.size * COMPACTION_LIVE_RATIO) {
+                    candidates.add(segment.id);
+                }
+            }
+        }
+
+        for (int id : candidates) {
+            synchronized (this) {
+                Segment segment = segments.get(id);
+                if (segment != null && segment != active) {
+                    compactSegment(segment);
+                }
+            }
+        }
+    }
+
+    private void compactSegment(@NotNull Segment segment) throws IOException {
+        boolean oldest = segments.firstKey() == segment.id;
+        List<LogRecord> live = new ArrayList<>();
+        for (LogRecord record : readRecords(segment)) {
+            if (record.type() == TYPE_PUT) {
+                IndexEntry entry = index.get(record.playerId());
+                if (entry != null && entry.segmentId() == segment.id && entry.offset() == record.offset()) {
+                    live.add(record);
+                }
+            } else if (!oldest && !index.containsKey(record.playerId())) {
+                // El borrado debe sobrevivir mientras queden segmentos anteriores con datos del jugador
+                live.add(record);
+            }
+        }
+
+        long[] offsets = append(live);
+        for (int i = 0; i < live.size(); i++) {
+            LogRecord record = live.get(i);
+            if (record.type() == TYPE_PUT) {
+                IndexEntry old = index.get(record.playerId());
+                updateIndex(record.playerId(), new IndexEntry(active.id, offsets[i], record.size(),
+                        old.level(), old.xp(), old.playerClass()));
+            }
+        }
+
+        // Solo se borra cuando la copia ya está en disco
+        segments.remove(segment.id);
+        segment.channel.close();
+        Files.deleteIfExists(segment.path);
+        rollIfFull();
+    }
+
+    private long @NotNull [] append(@NotNull List<LogRecord> records) throws IOException {
+        int total = 0;
+        for (LogRecord record : records) {
+            total += record.size();
+        }
+
+        long[] offsets = new long[records.size()];
+        if (total == 0) {
+            return offsets;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        long base = active.size;
+        for (int i = 0; i < records.size(); i++) {
+            offsets[i] = base + buffer.position();
+            writeRecord(buffer, records.get(i));
+        }
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            active.channel.write(buffer, base + buffer.position());
+        }
+        active.channel.force(false);
+        active.size += total;
+        return offsets;
+    }
+
+    private void rollIfFull() throws IOException {
+        if (active.size >= segmentMaxBytes) {
+            rollSegment();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        active = openSegment(active.id + 1);
+        segments.put(active.id, active);
+    }
+
+    private void updateIndex(@NotNull UUID playerId, @NotNull IndexEntry entry) {
+        removeFromIndex(playerId);
+        index.put(playerId, entry);
+        segments.get(entry.segmentId()).liveBytes += entry.size();
+    }
+
+    private void removeFromIndex(@NotNull UUID playerId) {
+        IndexEntry old = index.remove(playerId);
+        if (old != null) {
+            Segment segment = segments.get(old.segmentId());
+            if (segment != null) {
+                segment.liveBytes -= old.size();
+            }
+        }
+    }
+
+    private @NotNull Segment openSegment(int id) throws IOException {
+        Path path = new File(folder, String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)).toPath();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, path, channel, channel.size());
+    }
+
+    /**
+     * @return los registros válidos desde el principio hasta el primer registro incompleto o dañado
+     */
+    private @NotNull List<LogRecord> readRecords(@NotNull Segment segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) segment.size);
+        readFully(segment.channel, buffer, 0);
+        byte[] data = buffer.array();
+
+        List<LogRecord> records = new ArrayList<>();
+        int position = 0;
+        LogRecord record;
+        while ((record = parseRecord(data, position, position)) != null) {
+            records.add(record);
+            position += record.size();
+        }
+        return records;
+    }
+
+    private static @Nullable LogRecord parseRecord(byte @NotNull [] data, int position, long offset) {
+        if (position + HEADER_SIZE > data.length) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, position, data.length - position);
+        int length = buffer.getInt();
+        int crc = buffer.getInt();
+        byte type = buffer.get();
+        UUID playerId = new UUID(buffer.getLong(), buffer.getLong());
+        if (length < 0 || length > data.length - position - HEADER_SIZE || (type != TYPE_PUT && type != TYPE_DELETE)) {
+            return null;
+        }
+
+        byte[] payload = Arrays.copyOfRange(data, position + HEADER_SIZE, position + HEADER_SIZE + length);
+        if (crc != checksum(type, playerId, payload)) {
+            return null;
+        }
+        return new LogRecord(offset, type, playerId, payload);
+    }
+
+    private static void writeRecord(@NotNull ByteBuffer buffer, @NotNull LogRecord record) {
+        buffer.putInt(record.payload().length);
+        buffer.putInt(checksum(record.type(), record.playerId(), record.payload()));
+        buffer.put(record.type());
+        buffer.putLong(record.playerId().getMostSignificantBits());
+        buffer.putLong(record.playerId().getLeastSignificantBits());
+        buffer.put(record.payload());
+    }
+
+    private static int checksum(byte type, @NotNull UUID playerId, byte @NotNull [] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(ByteBuffer.allocate(16)
+                .putLong(playerId.getMostSignificantBits())
+                .putLong(playerId.getLeastSignificantBits())
+                .array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fin de archivo inesperado");
+            }
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        long size;
+        // Bytes de registros a los que aún apunta el índice
+        long liveBytes;
+
+        Segment(int id, Path path, FileChannel channel, long size) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    private record IndexEntry(int segmentId, long offset, int size, int level, float xp, String playerClass) {
+    }
+
+    private record LogRecord(long offset, byte type, UUID playerId, byte[] payload) {
+        int size() {
+            return HEADER_SIZE + payload.length;
+        }
+
+        long end() {
+            return offset + size();
+        }
+    }
+}
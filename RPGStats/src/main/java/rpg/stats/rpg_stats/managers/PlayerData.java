@@ -3,8 +3,10 @@ package rpg.stats.rpg_stats.managers;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class PlayerData implements ConfigurationSerializable {
@@ -19,6 +21,10 @@ public class PlayerData implements ConfigurationSerializable {
     private String playerClass;
     private final Map<String, Integer> metadata = new ConcurrentHashMap<>();
 
+    // Contador de cambios para el guardado diferido (no se serializa)
+    private long version;
+    private volatile long savedVersion;
+
     public PlayerData() {
         this(1, 0.0f, 0, 1, 1, 1, 100, 100, "none");
     }
@@ -59,6 +65,7 @@ public class PlayerData implements ConfigurationSerializable {
     }
 
     public void setMetadata(String key, int value) {
+        version++;
         metadata.put(key.toLowerCase(), Math.max(0, value));
     }
 
@@ -71,40 +78,104 @@ public class PlayerData implements ConfigurationSerializable {
         return !metadata.isEmpty();
     }
 
+    /**
+     * Copia los campos actuales en O(campos). Debe llamarse desde el hilo principal,
+     * que es el único que modifica estos datos.
+     */
+    public @NotNull PlayerDataSnapshot snapshot(@NotNull UUID playerId) {
+        String[] keys = new String[metadata.size()];
+        int[] values = new int[keys.length];
+        int count = 0;
+        for (Map.Entry<String, Integer> entry : metadata.entrySet()) {
+            if (count == keys.length) break;
+            keys[count] = entry.getKey();
+            values[count] = entry.getValue();
+            count++;
+        }
+        if (count < keys.length) {
+            keys = Arrays.copyOf(keys, count);
+            values = Arrays.copyOf(values, count);
+        }
+
+        return new PlayerDataSnapshot(playerId, version, level, xp, availablePoints,
+                strength, dexterity, constitution, mana, maxMana, playerClass, keys, values);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isDirty() {
+        return version != savedVersion;
+    }
+
+    /**
+     * @return si ya se guardó la versión indicada o una posterior
+     */
+    public boolean isSavedUpTo(long version) {
+        return savedVersion >= version;
+    }
+
+    /**
+     * Fuerza una nueva escritura aunque no haya cambios en memoria.
+     */
+    public void markDirty() {
+        version++;
+    }
+
+    /**
+     * Marca como guardada la versión indicada. Una versión anterior no
+     * sobrescribe a una más reciente que ya se haya escrito.
+     */
+    public void markSaved(long savedVersion) {
+        if (savedVersion > this.savedVersion) {
+            this.savedVersion = savedVersion;
+        }
+    }
+
     public void setLevel(int level) {
+        version++;
         this.level = Math.max(1, level);
     }
 
     public void setXp(float xp) {
+        version++;
         this.xp = Math.max(0, xp);
     }
 
     public void setAvailablePoints(int availablePoints) {
+        version++;
         this.availablePoints = Math.max(0, availablePoints);
     }
 
     public void setStrength(int strength) {
+        version++;
         this.strength = Math.max(0, strength);
     }
 
     public void setDexterity(int dexterity) {
+        version++;
         this.dexterity = Math.max(0, dexterity);
     }
 
     public void setConstitution(int constitution) {
+        version++;
         this.constitution = Math.max(0, constitution);
     }
 
     public void setMana(int mana) {
+        version++;
         this.mana = Math.min(Math.max(0, mana), this.maxMana);
     }
 
     public void setMaxMana(int maxMana) {
+        version++;
         this.maxMana = Math.max(10, maxMana);
         this.mana = Math.min(this.mana, this.maxMana);
     }
 
     public void setPlayerClass(@NotNull String playerClass) {
+        version++;
         this.playerClass = playerClass;
     }
 
@@ -0,0 +1,223 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Formato binario compacto para {@link PlayerData}.
+ *
+ * <pre>
+ * int    magia "RPGS"
+ * byte   versión del esquema
+ * varint nivel, float xp, varint puntos, fuerza, destreza, constitución, maná, maná máximo
+ * string clase
+ * varint nº de metadatos, y por cada uno: varint id [string clave si id == 0], varint valor
+ * </pre>
+ *
+ * Los ids de metadatos forman parte del formato: no se pueden reordenar ni reutilizar.
+ */
+public final class PlayerDataCodec {
+    public static final int MAGIC = 0x52504753; // "RPGS"
+    public static final byte SCHEMA_VERSION = 1;
+
+    // Índice = id guardado en disco. El id 0 indica clave escrita como texto.
+    private static final String[] METADATA_KEYS = {
+            null,
+            "inteligencia",
+            "sabiduria",
+            "precision",
+            "agilidad"
+    };
+
+    private PlayerDataCodec() {
+    }
+
+    public static byte @NotNull [] encode(@NotNull PlayerDataSnapshot snapshot) {
+        Writer out = new Writer(64);
+        out.writeInt(MAGIC);
+        out.writeByte(SCHEMA_VERSION);
+
+        out.writeVarInt(snapshot.level());
+        out.writeFloat(snapshot.xp());
+        out.writeVarInt(snapshot.availablePoints());
+        out.writeVarInt(snapshot.strength());
+        out.writeVarInt(snapshot.dexterity());
+        out.writeVarInt(snapshot.constitution());
+        out.writeVarInt(snapshot.mana());
+        out.writeVarInt(snapshot.maxMana());
+        out.writeString(snapshot.playerClass());
+
+        out.writeVarInt(snapshot.metadataCount());
+        for (int i = 0; i < snapshot.metadataCount(); i++) {
+            String key = snapshot.metadataKeys()[i];
+            int id = metadataId(key);
+            out.writeVarInt(id);
+            if (id == 0) {
+                out.writeString(key);
+            }
+            out.writeVarInt(snapshot.metadataValues()[i]);
+        }
+        return out.toByteArray();
+    }
+
+    public static @NotNull PlayerData decode(byte @NotNull [] data) throws IOException {
+        Reader in = new Reader(data);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Cabecera de datos inválida");
+        }
+        int version = in.readByte();
+        if (version < 1 || version > SCHEMA_VERSION) {
+            throw new IOException("Versión de esquema no soportada: " + version);
+        }
+
+        int level = in.readVarInt();
+        float xp = in.readFloat();
+        int availablePoints = in.readVarInt();
+        int strength = in.readVarInt();
+        int dexterity = in.readVarInt();
+        int constitution = in.readVarInt();
+        int mana = in.readVarInt();
+        int maxMana = in.readVarInt();
+        String playerClass = in.readString();
+
+        PlayerData pd = new PlayerData(level, xp, availablePoints, strength, dexterity,
+                constitution, mana, maxMana, playerClass);
+
+        int metadataCount = in.readVarInt();
+        for (int i = 0; i < metadataCount; i++) {
+            int id = in.readVarInt();
+            String key = id == 0 ? in.readString() : metadataKey(id);
+            pd.setMetadata(key, in.readVarInt());
+        }
+        return pd;
+    }
+
+    private static int metadataId(@NotNull String key) {
+        for (int id = 1; id < METADATA_KEYS.length; id++) {
+            if (METADATA_KEYS[id].equals(key)) {
+                return id;
+            }
+        }
+        return 0;
+    }
+
+    private static @NotNull String metadataKey(int id) throws IOException {
+        if (id <= 0 || id >= METADATA_KEYS.length) {
+            throw new IOException("Id de metadato desconocido: " + id);
+        }
+        return METADATA_KEYS[id];
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            buffer[position++] = (byte) (value >>> 24);
+            buffer[position++] = (byte) (value >>> 16);
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeFloat(float value) {
+            writeInt(Float.floatToIntBits(value));
+        }
+
+        // Zigzag + LEB128: los valores pequeños ocupan un byte
+        void writeVarInt(int value) {
+            int zigzag = (value << 1) ^ (value >> 31);
+            ensureCapacity(5);
+            while ((zigzag & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        void writeString(@NotNull String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private void require(int bytes) throws IOException {
+            if (position + bytes > buffer.length) {
+                throw new IOException("Datos truncados");
+            }
+        }
+
+        int readByte() throws IOException {
+            require(1);
+            return buffer[position++];
+        }
+
+        int readInt() throws IOException {
+            require(4);
+            return ((buffer[position++] & 0xFF) << 24)
+                    | ((buffer[position++] & 0xFF) << 16)
+                    | ((buffer[position++] & 0xFF) << 8)
+                    | (buffer[position++] & 0xFF);
+        }
+
+        float readFloat() throws IOException {
+            return Float.intBitsToFloat(readInt());
+        }
+
+        int readVarInt() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (result >>> 1) ^ -(result & 1);
+                }
+            }
+            throw new IOException("VarInt demasiado largo");
+        }
+
+        @NotNull String readString() throws IOException {
+            int length = readVarInt();
+            if (length < 0) {
+                throw new IOException("Longitud de texto inválida");
+            }
+            require(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
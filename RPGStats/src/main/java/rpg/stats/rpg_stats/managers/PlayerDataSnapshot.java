@@ -0,0 +1,30 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Copia inmutable de {@link PlayerData} tomada en el hilo principal.
+ * Es lo único que recibe el hilo de I/O para serializar, así nunca ve
+ * un nivel y una XP de momentos distintos.
+ * Los arrays de metadata no deben modificarse tras crear la copia.
+ */
+public record PlayerDataSnapshot(@NotNull UUID playerId,
+                                 long version,
+                                 int level,
+                                 float xp,
+                                 int availablePoints,
+                                 int strength,
+                                 int dexterity,
+                                 int constitution,
+                                 int mana,
+                                 int maxMana,
+                                 @NotNull String playerClass,
+                                 @NotNull String[] metadataKeys,
+                                 int @NotNull [] metadataValues) {
+
+    public int metadataCount() {
+        return metadataKeys.length;
+    }
+}
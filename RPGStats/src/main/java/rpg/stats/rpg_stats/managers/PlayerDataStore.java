@@ -0,0 +1,48 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Almacenamiento persistente de {@link PlayerData}.
+ * Todas las operaciones pueden bloquear: se llaman desde el executor de I/O,
+ * nunca desde el hilo principal.
+ */
+public interface PlayerDataStore {
+
+    /**
+     * @return los datos guardados, o {@code null} si el jugador no existe.
+     * Los datos devueltos vienen marcados como guardados salvo que haya que reescribirlos.
+     */
+    @Nullable PlayerData load(@NotNull UUID playerId) throws IOException;
+
+    /**
+     * Guarda todas las copias como un único lote.
+     */
+    void saveAll(@NotNull Collection<PlayerDataSnapshot> snapshots) throws IOException;
+
+    /**
+     * @return true si varias llamadas a {@link #saveAll} pueden escribir a la vez de verdad.
+     * Los almacenes que las serializan ganan más con un único lote.
+     */
+    default boolean supportsConcurrentWrites() {
+        return false;
+    }
+
+    void delete(@NotNull UUID playerId) throws IOException;
+
+    /**
+     * Jugadores ordenados por nivel y XP, de mayor a menor.
+     */
+    @NotNull List<RankingEntry> topByLevel(int limit) throws IOException;
+
+    void close() throws IOException;
+
+    record RankingEntry(@NotNull UUID playerId, int level, float xp, @NotNull String playerClass) {
+    }
+}
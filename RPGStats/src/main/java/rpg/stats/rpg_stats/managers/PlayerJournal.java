@@ -0,0 +1,417 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de cambios entre guardados completos. Cada entrada guarda el valor final
+ * del campo (no el incremento), así que reaplicarlas en orden sobre cualquier copia
+ * anterior deja al jugador como estaba en memoria.
+ *
+ * <p>Las entradas se codifican en el hilo principal y un hilo propio las escribe
+ * agrupadas con un único fsync cada {@code commitIntervalMs}.
+ *
+ * <p>El diario se divide en generaciones ({@code journal-<n>.wal}). En cada vaciado
+ * periódico se cierra la generación actual; se puede borrar en cuanto todos sus
+ * jugadores tienen guardada una versión posterior.
+ */
+public class PlayerJournal {
+    private static final String FILE_PREFIX = "journal-";
+    private static final String FILE_SUFFIX = ".wal";
+
+    private static final int OP_WRITE = 0;
+    private static final int OP_ROTATE = 1;
+    private static final int OP_DELETE = 2;
+    private static final int OP_CLOSE = 3;
+
+    private final File folder;
+    private final Logger logger;
+    private final long commitIntervalMs;
+    private final BlockingQueue<Op> queue = new LinkedBlockingQueue<>();
+    private final List<Integer> recoveredGenerations = new ArrayList<>();
+    private final Thread writer;
+    // Primera generación escrita en esta ejecución; las anteriores son recuperadas
+    private final int firstGeneration;
+    // Solo hilo principal
+    private final Set<UUID> currentPlayers = new HashSet<>();
+    private int generation;
+    // Tras un error de escritura o rotación las generaciones ya no se corresponden con sus archivos
+    private volatile boolean failed;
+
+    public enum Type {
+        XP, LEVEL, ATTRIBUTE, CLASS, RESET
+    }
+
+    public PlayerJournal(@NotNull File folder, @NotNull Logger logger, long commitIntervalMs) throws IOException {
+        this.folder = Objects.requireNonNull(folder);
+        this.logger = Objects.requireNonNull(logger);
+        this.commitIntervalMs = Math.max(0, commitIntervalMs);
+
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio " + folder.getPath());
+        }
+
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    recoveredGenerations.add(Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warning("Archivo de diario con nombre inválido ignorado: " + name);
+                }
+            }
+        }
+        Collections.sort(recoveredGenerations);
+        this.generation = recoveredGenerations.isEmpty() ? 1 : recoveredGenerations.get(recoveredGenerations.size() - 1) + 1;
+        this.firstGeneration = generation;
+
+        FileChannel channel = openGeneration(generation);
+        this.writer = new Thread(() -> runWriter(channel), "RPGStats-Journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Entradas de las generaciones que quedaron en disco tras un cierre sin guardar, en orden.
+     * Una cola incompleta (corte a mitad de escritura) se descarta.
+     */
+    public @NotNull List<Entry> recoverEntries() {
+        List<Entry> entries = new ArrayList<>();
+        for (int recovered : recoveredGenerations) {
+            Path path = generationPath(recovered);
+            try {
+                byte[] data = Files.readAllBytes(path);
+                int position = 0;
+                Entry entry;
+                while ((entry = readEntry(data, position)) != null) {
+                    entries.add(entry);
+                    position += 8 + ByteBuffer.wrap(data, position, 4).getInt();
+                }
+                if (position < data.length) {
+                    logger.warning("Descartados " + (data.length - position) + " bytes incompletos en " + path.getFileName());
+                }
+            } catch (IOException e) {
+                logger.severe("No se pudo leer el diario " + path.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Borra las generaciones recuperadas una vez sus cambios están guardados.
+     */
+    public void discardRecovered() {
+        for (int recovered : recoveredGenerations) {
+            queue.add(new Op(OP_DELETE, null, recovered));
+        }
+        recoveredGenerations.clear();
+    }
+
+    /**
+     * Pasa las generaciones recuperadas al llamador, que las borra con {@link #delete(int)}
+     * cuando sus cambios estén guardados. Hasta entonces ningún cierre las borra.
+     */
+    public @NotNull List<Integer> takeRecovered() {
+        List<Integer> taken = List.copyOf(recoveredGenerations);
+        recoveredGenerations.clear();
+        return taken;
+    }
+
+    public void logXp(@NotNull UUID playerId, float xp) {
+        append(playerId, Type.XP, buffer -> buffer.putFloat(xp), 4);
+    }
+
+    public void logLevel(@NotNull UUID playerId, int level, int availablePoints, int maxMana) {
+        append(playerId, Type.LEVEL, buffer -> buffer.putInt(level).putInt(availablePoints).putInt(maxMana), 12);
+    }
+
+    public void logAttribute(@NotNull UUID playerId, @NotNull String attribute, int value, int availablePoints) {
+        byte[] key = attribute.toLowerCase().getBytes(StandardCharsets.UTF_8);
+        append(playerId, Type.ATTRIBUTE, buffer -> buffer.putShort((short) key.length).put(key).putInt(value).putInt(availablePoints),
+                2 + key.length + 8);
+    }
+
+    public void logClass(@NotNull UUID playerId, @NotNull String playerClass) {
+        byte[] name = playerClass.getBytes(StandardCharsets.UTF_8);
+        append(playerId, Type.CLASS, buffer -> buffer.putShort((short) name.length).put(name), 2 + name.length);
+    }
+
+    public void logReset(@NotNull UUID playerId) {
+        append(playerId, Type.RESET, buffer -> { }, 0);
+    }
+
+    private void append(@NotNull UUID playerId, @NotNull Type type, @NotNull Consumer<ByteBuffer> fields, int fieldsSize) {
+        int bodySize = 1 + 16 + fieldsSize;
+        ByteBuffer buffer = ByteBuffer.allocate(8 + bodySize);
+        buffer.putInt(bodySize).putInt(0);
+        buffer.put((byte) type.ordinal())
+                .putLong(playerId.getMostSignificantBits())
+                .putLong(playerId.getLeastSignificantBits());
+        fields.accept(buffer);
+        buffer.putInt(4, checksum(buffer.array(), 8, bodySize));
+
+        currentPlayers.add(playerId);
+        queue.add(new Op(OP_WRITE, buffer.array(), 0));
+    }
+
+    /**
+     * Cierra la generación actual; las entradas siguientes van a una nueva.
+     * @return la generación cerrada y los jugadores con entradas en ella,
+     * o {@code null} si no había entradas desde la última rotación
+     */
+    public @Nullable Generation rotate() {
+        if (currentPlayers.isEmpty()) {
+            return null;
+        }
+        Generation sealed = new Generation(generation, Set.copyOf(currentPlayers));
+        currentPlayers.clear();
+        generation++;
+        queue.add(new Op(OP_ROTATE, null, generation));
+        return sealed;
+    }
+
+    /**
+     * @return true si hubo un error de escritura o de rotación; las generaciones
+     * no deben borrarse hasta que todos los datos estén guardados
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public void delete(int generation) {
+        queue.add(new Op(OP_DELETE, null, generation));
+    }
+
+    /**
+     * Escribe lo pendiente y detiene el hilo del diario.
+     * @param discardAll borra las generaciones escritas en esta ejecución (todos sus cambios
+     *                   están guardados); las recuperadas solo se borran con {@link #delete(int)}
+     */
+    public void close(boolean discardAll) {
+        queue.add(new Op(OP_CLOSE, null, discardAll ? 1 : 0));
+        try {
+            writer.join(5000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter(@NotNull FileChannel initialChannel) {
+        FileChannel channel = initialChannel;
+        ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        List<Op> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                // Esperar un poco para agrupar varias entradas en el mismo fsync
+                if (commitIntervalMs > 0) {
+                    Thread.sleep(commitIntervalMs);
+                }
+                queue.drainTo(batch);
+
+                for (Op op : batch) {
+                    if (op.kind() == OP_CLOSE) {
+                        close(channel, pending, op.generation() == 1);
+                        return;
+                    }
+                    try {
+                        switch (op.kind()) {
+                            case OP_WRITE -> pending.write(op.data());
+                            case OP_ROTATE -> {
+                                flush(channel, pending);
+                                // Se abre la nueva antes de cerrar la actual: si falla se sigue escribiendo en esta
+                                FileChannel next = openGeneration(op.generation());
+                                channel.close();
+                                channel = next;
+                            }
+                            case OP_DELETE -> Files.deleteIfExists(generationPath(op.generation()));
+                        }
+                    } catch (IOException e) {
+                        fail(e);
+                    }
+                }
+                batch.clear();
+
+                try {
+                    flush(channel, pending);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void close(@NotNull FileChannel channel, @NotNull ByteArrayOutputStream pending, boolean discardAll) {
+        try {
+            flush(channel, pending);
+        } catch (IOException e) {
+            fail(e);
+        }
+        try {
+            channel.close();
+            if (discardAll) {
+                deleteOwnGenerations();
+            }
+        } catch (IOException e) {
+            logger.severe("Error al cerrar el diario de cambios: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Las entradas que no se pudieron escribir se conservan para el siguiente intento.
+     */
+    private static void flush(@NotNull FileChannel channel, @NotNull ByteArrayOutputStream pending) throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        long start = channel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Una entrada a medias cortaría la recuperación de todo lo que venga detrás
+            try {
+                channel.truncate(start);
+            } catch (IOException ignored) {
+                // Se informa del error original
+            }
+            throw e;
+        }
+        pending.reset();
+    }
+
+    private void fail(@NotNull IOException e) {
+        if (!failed) {
+            failed = true;
+            logger.severe("El diario de cambios ha fallado: " + e.getMessage() + ". No se borrará ninguna generación"
+                    + " hasta el apagado y los cambios sin escribir se reintentarán; revisa el disco");
+        } else {
+            logger.warning("Error al escribir el diario de cambios: " + e.getMessage());
+        }
+    }
+
+    private void deleteOwnGenerations() throws IOException {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    if (Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())) >= firstGeneration) {
+                        Files.deleteIfExists(file.toPath());
+                    }
+                } catch (NumberFormatException e) {
+                    // No es de este diario
+                }
+            }
+        }
+    }
+
+    private @NotNull FileChannel openGeneration(int generation) throws IOException {
+        return FileChannel.open(generationPath(generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private @NotNull Path generationPath(int generation) {
+        return new File(folder, String.format("%s%06d%s", FILE_PREFIX, generation, FILE_SUFFIX)).toPath();
+    }
+
+    private static @Nullable Entry readEntry(byte @NotNull [] data, int position) {
+        if (position + 8 > data.length) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data, position, data.length - position);
+        int bodySize = buffer.getInt();
+        int crc = buffer.getInt();
+        if (bodySize < 17 || bodySize > data.length - position - 8 || crc != checksum(data, position + 8, bodySize)) {
+            return null;
+        }
+
+        int typeId = buffer.get();
+        if (typeId < 0 || typeId >= Type.values().length) {
+            return null;
+        }
+        Type type = Type.values()[typeId];
+        UUID playerId = new UUID(buffer.getLong(), buffer.getLong());
+        try {
+            return switch (type) {
+                case XP -> new Entry(playerId, type, buffer.getFloat(), 0, 0, 0, null, 0);
+                case LEVEL -> new Entry(playerId, type, 0, buffer.getInt(), buffer.getInt(), buffer.getInt(), null, 0);
+                case ATTRIBUTE -> {
+                    String key = readString(buffer);
+                    int value = buffer.getInt();
+                    yield new Entry(playerId, type, 0, 0, buffer.getInt(), 0, key, value);
+                }
+                case CLASS -> new Entry(playerId, type, 0, 0, 0, 0, readString(buffer), 0);
+                case RESET -> new Entry(playerId, type, 0, 0, 0, 0, null, 0);
+            };
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static @NotNull String readString(@NotNull ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(byte @NotNull [] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    public record Generation(int id, @NotNull Set<UUID> players) {
+    }
+
+    public record Entry(@NotNull UUID playerId, @NotNull Type type, float xp, int level,
+                        int availablePoints, int maxMana, @Nullable String key, int value) {
+
+        public void applyTo(@NotNull PlayerData pd) {
+            switch (type) {
+                case XP -> pd.setXp(xp);
+                case LEVEL -> {
+                    pd.setLevel(level);
+                    pd.setAvailablePoints(availablePoints);
+                    pd.setMaxMana(maxMana);
+                }
+                case ATTRIBUTE -> {
+                    switch (Objects.requireNonNull(key)) {
+                        case "fuerza" -> pd.setStrength(value);
+                        case "destreza" -> pd.setDexterity(value);
+                        case "constitucion" -> pd.setConstitution(value);
+                        default -> pd.setMetadata(key, value);
+                    }
+                    pd.setAvailablePoints(availablePoints);
+                }
+                case CLASS -> pd.setPlayerClass(Objects.requireNonNull(key));
+                case RESET -> pd.resetStats();
+            }
+        }
+    }
+
+    private record Op(int kind, byte[] data, int generation) {
+    }
+}
@@ -6,21 +6,27 @@ import net.kyori.adventure.title.Title;
 import org.bukkit.Bukkit;
 import org.bukkit.Sound;
 import org.bukkit.attribute.Attribute;
-import org.bukkit.configuration.Configuration;
-import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import rpg.stats.rpg_stats.events.AttributeChangeEvent;
 import rpg.stats.rpg_stats.events.PlayerLevelUpEvent;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 public class PlayerProgress {
@@ -28,29 +34,60 @@ public class PlayerProgress {
     private final FileConfiguration config;
     private XPDisplay xpDisplay;
     private final AttributeManager attributeManager;
-    private final RPGClassManager classManager;
     private final String dataFolderPath;
-    private final Map<UUID, PlayerData> playerDataMap = new ConcurrentHashMap<>();
-    private final Map<UUID, String> playerClasses = new HashMap<>();
+    // Sesiones de los jugadores conectados
+    private final Map<UUID, PlayerSession> sessions = new ConcurrentHashMap<>();
+    // Jugadores desconectados hace poco; evita leer el disco si vuelven enseguida
+    private final SessionCache sessionCache;
+    private final XPAggregator xpAggregator;
+    private final EffectReapplier effectReapplier;
+    private final LevelPrefixManager levelPrefixes;
     private final Set<UUID> pendingSaves = ConcurrentHashMap.newKeySet();
-
-    private int defaultLevel = 1;
-    private float defaultXP = 0;
-    private int defaultAvailablePoints = 0;
-    private int defaultStrength = 1;
-    private int defaultDexterity = 1;
-    private int defaultConstitution = 1;
-    private int defaultMana = 100;
-    private int defaultMaxMana = 100;
-    private String defaultClass = "none";
+    // Jugadores cuyo registro guardado no se pudo leer: nunca se guardan para no pisarlo con datos por defecto
+    private final Set<UUID> unreadablePlayers = ConcurrentHashMap.newKeySet();
+    // Jugadores con cambios en un diario que no se pudo recuperar: no pueden entrar hasta el próximo arranque
+    private final Set<UUID> journalBlockedPlayers = ConcurrentHashMap.newKeySet();
+    // Datos leídos durante AsyncPlayerPreLoginEvent, pendientes de adjuntar en PlayerJoinEvent
+    private final Map<UUID, PendingSession> pendingSessions = new ConcurrentHashMap<>();
+    private final ExecutorService ioExecutor;
+    private final AtomicBoolean shutDown = new AtomicBoolean();
+    private final PlayerDataStore dataStore;
+    // Almacén de archivos desde el que se migran los datos si se usa otro tipo de almacenamiento
+    private final FilePlayerDataStore legacyStore;
+    // Jugadores leídos del almacén de archivos cuyos archivos se apartan tras guardarlos en el actual
+    private final Set<UUID> legacyMigrations = ConcurrentHashMap.newKeySet();
+    // Diario de cambios entre guardados; null si está desactivado
+    private final PlayerJournal journal;
+    // Generaciones cerradas a la espera de que se guarden sus jugadores (solo hilo principal)
+    private final List<SealedGeneration> sealedGenerations = new ArrayList<>();
+
+    private static final long PENDING_SESSION_TTL_MS = 60_000L;
+    private static final long PRELOAD_TIMEOUT_SECONDS = 10L;
+
+    // Configuración de juego compilada; al recargar se sustituye entera en el hilo principal
+    private volatile RpgConfig settings;
+
+    // Se incrementa al recargar para que las sesiones recalculen sus multiplicadores
+    private int multiplierGeneration;
 
     public PlayerProgress(@NotNull JavaPlugin plugin, @NotNull FileConfiguration config, XPDisplay xpDisplay) {
         this.plugin = Objects.requireNonNull(plugin);
         this.config = Objects.requireNonNull(config);
         this.dataFolderPath = plugin.getDataFolder().getAbsolutePath() + File.separator + "playerdata" + File.separator;
-        this.attributeManager = new AttributeManager(config, plugin);
-        this.classManager = new RPGClassManager(config);
+        this.settings = RpgConfig.load(config, plugin, this).resolveRegistries(plugin.getLogger());
+        this.attributeManager = new AttributeManager(this::getSettings, plugin);
         this.xpDisplay = xpDisplay;
+        this.sessionCache = new SessionCache(config.getInt("storage.session-cache.max-size", 500),
+                TimeUnit.SECONDS.toMillis(config.getLong("storage.session-cache.ttl", 300)));
+        this.xpAggregator = new XPAggregator(plugin, this);
+        this.effectReapplier = new EffectReapplier(plugin, this);
+        this.levelPrefixes = new LevelPrefixManager(plugin, this);
+        this.ioExecutor = createExecutor(Math.max(1, config.getInt("storage.io-threads", 2)), "RPGStats-IO-");
+
+        FilePlayerDataStore fileStore = new FilePlayerDataStore(new File(dataFolderPath), plugin.getLogger(), this::createNewPlayerData);
+        this.dataStore = createDataStore(config.getString("storage.type", "file"), fileStore);
+        this.legacyStore = dataStore == fileStore ? null : fileStore;
+        this.journal = config.getBoolean("storage.journal.enabled", true) ? openJournal() : null;
 
         ensureDataFolderExists();
         if (!isDataFolderWritable()) {
@@ -59,142 +96,587 @@ public class PlayerProgress {
             return;
         }
 
-        reloadConfig(config);
         ensureDataFolderExists();
+
+        if (journal != null) {
+            replayJournal();
+        }
+    }
+
+    private static @NotNull ExecutorService createExecutor(int threads, @NotNull String threadPrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        // Pool acotado: limita cuántas lecturas/escrituras de disco corren a la vez
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, threadPrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private @NotNull PlayerDataStore createDataStore(@NotNull String type, @NotNull PlayerDataStore fileStore) {
+        switch (type.toLowerCase()) {
+            case "file":
+                return fileStore;
+            case "sqlite":
+                try {
+                    return new SqlitePlayerDataStore(new File(plugin.getDataFolder(), "playerdata.db"));
+                } catch (IOException e) {
+                    plugin.getLogger().severe(e.getMessage() + ". Se usarán archivos por jugador");
+                    return fileStore;
+                }
+            case "log":
+                try {
+                    return new LogPlayerDataStore(new File(plugin.getDataFolder(), "playerlog"), plugin.getLogger(),
+                            config.getLong("storage.log.segment-size-mb", 8) * 1024 * 1024,
+                            config.getLong("storage.log.compaction-interval", 300));
+                } catch (IOException e) {
+                    plugin.getLogger().severe("No se pudo abrir el registro de datos: " + e.getMessage() + ". Se usarán archivos por jugador");
+                    return fileStore;
+                }
+            default:
+                plugin.getLogger().warning("Tipo de almacenamiento desconocido: " + type + ". Se usarán archivos por jugador");
+                return fileStore;
+        }
+    }
+
+    private PlayerJournal openJournal() {
+        try {
+            return new PlayerJournal(new File(plugin.getDataFolder(), "journal"), plugin.getLogger(),
+                    config.getLong("storage.journal.commit-interval-ms", 200));
+        } catch (IOException e) {
+            plugin.getLogger().severe("No se pudo abrir el diario de cambios: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reaplica sobre los datos guardados los cambios que quedaron en el diario
+     * tras un cierre inesperado y los guarda antes de aceptar jugadores.
+     */
+    private void replayJournal() {
+        List<PlayerJournal.Entry> entries = journal.recoverEntries();
+        if (entries.isEmpty()) {
+            journal.discardRecovered();
+            return;
+        }
+
+        Map<UUID, PlayerData> recovered = new LinkedHashMap<>();
+        Set<UUID> unreadable = new HashSet<>();
+        for (PlayerJournal.Entry entry : entries) {
+            UUID playerId = entry.playerId();
+            if (unreadable.contains(playerId)) continue;
+
+            PlayerData pd = recovered.get(playerId);
+            if (pd == null) {
+                try {
+                    pd = readPlayerData(playerId, playerId.toString());
+                } catch (IOException e) {
+                    plugin.getLogger().severe("Error al cargar datos de " + playerId + " para recuperar el diario: " + e.getMessage());
+                    unreadable.add(playerId);
+                    continue;
+                }
+                if (pd == null) {
+                    pd = createNewPlayerData();
+                }
+                recovered.put(playerId, pd);
+            }
+            entry.applyTo(pd);
+        }
+
+        if (!unreadable.isEmpty()) {
+            // Aplicar solo una parte no sirve: las generaciones se conservan enteras y nadie
+            // de ellas entra, así sus registros no cambian y el próximo arranque puede reintentarlo
+            journalBlockedPlayers.addAll(recovered.keySet());
+            journalBlockedPlayers.addAll(unreadable);
+            plugin.getLogger().severe("No se pudo recuperar el diario: hay " + unreadable.size()
+                    + " jugadores con datos ilegibles. Se conserva para el próximo arranque y "
+                    + journalBlockedPlayers.size() + " jugadores no podrán entrar hasta entonces");
+            return;
+        }
+
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>(recovered.size());
+        recovered.forEach((playerId, pd) -> snapshots.add(pd.snapshot(playerId)));
+        try {
+            dataStore.saveAll(snapshots);
+            retireLegacyData(snapshots);
+            journal.discardRecovered();
+            plugin.getLogger().info("Recuperados desde el diario los cambios de " + recovered.size()
+                    + " jugadores (" + entries.size() + " entradas)");
+        } catch (IOException e) {
+            // Quedan en memoria como cambios sin guardar: el guardado periódico los reintenta
+            // y las generaciones recuperadas se borran cuando estén guardados
+            plugin.getLogger().severe("No se pudieron guardar los cambios recuperados del diario: " + e.getMessage()
+                    + ". Se reintentará en el próximo guardado");
+            Map<UUID, Long> requiredVersions = new HashMap<>();
+            recovered.forEach((playerId, pd) -> {
+                requiredVersions.put(playerId, pd.getVersion());
+                sessionCache.put(playerId, pd);
+            });
+            for (int generation : journal.takeRecovered()) {
+                sealedGenerations.add(new SealedGeneration(generation, Map.copyOf(requiredVersions)));
+            }
+        }
     }
 
     public void setXpDisplay(@NotNull XPDisplay xpDisplay) {
         this.xpDisplay = Objects.requireNonNull(xpDisplay);
     }
 
+    /**
+     * Sesión del jugador conectado. Solo {@link #attachPlayerData} crea sesiones: pedirla
+     * para un jugador que ya salió no la vuelve a crear ni saca sus datos de la caché.
+     * @throws IllegalStateException si el jugador no tiene sesión
+     */
+    public @NotNull PlayerSession getSession(@NotNull Player player) {
+        PlayerSession session = sessions.get(player.getUniqueId());
+        if (session == null) {
+            throw new IllegalStateException("El jugador " + player.getName() + " no tiene una sesión activa");
+        }
+        return session;
+    }
+
+    /**
+     * @return la sesión del jugador si está conectado
+     */
+    public @Nullable PlayerSession getSession(@NotNull UUID playerId) {
+        return sessions.get(playerId);
+    }
+
     public @NotNull PlayerData getPlayerData(@NotNull Player player) {
-        return playerDataMap.computeIfAbsent(player.getUniqueId(), k -> createNewPlayerData());
+        return getSession(player).getData();
+    }
+
+    /**
+     * Datos en memoria del jugador, esté conectado o en la caché de sesiones recientes.
+     */
+    private PlayerData findPlayerData(@NotNull UUID playerId) {
+        PlayerSession session = sessions.get(playerId);
+        return session != null ? session.getData() : sessionCache.peek(playerId);
+    }
+
+    /**
+     * Cierra la sesión del jugador al desconectarse: encola su guardado, libera todo
+     * su estado temporal y pasa sus datos a la caché de sesiones recientes.
+     */
+    public void endSession(@NotNull Player player) {
+        UUID playerId = player.getUniqueId();
+        xpAggregator.flush(player);
+        savePlayerData(playerId);
+
+        PlayerSession session = sessions.remove(playerId);
+        boolean unreadable = unreadablePlayers.remove(playerId);
+        if (session != null) {
+            attributeManager.cleanUpPlayer(player, session);
+            levelPrefixes.removePlayer(player);
+            session.release();
+            if (!unreadable) {
+                sessionCache.put(playerId, session.getData());
+            }
+        }
+    }
+
+    public @NotNull SessionCache getSessionCache() {
+        return sessionCache;
     }
 
     private @NotNull PlayerData createNewPlayerData() {
+        RpgConfig.DefaultStats defaults = settings.getDefaultStats();
         return new PlayerData(
-                defaultLevel,
-                defaultXP,
-                defaultAvailablePoints,
-                defaultStrength,
-                defaultDexterity,
-                defaultConstitution,
-                defaultMana,
-                defaultMaxMana,
-                defaultClass
+                defaults.level(),
+                defaults.xp(),
+                defaults.availablePoints(),
+                defaults.strength(),
+                defaults.dexterity(),
+                defaults.constitution(),
+                defaults.mana(),
+                defaults.maxMana(),
+                defaults.playerClass()
         );
     }
 
     public void savePlayerData(@NotNull Player player) {
-        if (pendingSaves.contains(player.getUniqueId())) {
-            return;
-        }
-        pendingSaves.add(player.getUniqueId());
+        savePlayerData(player.getUniqueId());
+    }
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                UUID uuid = player.getUniqueId();
-                File file = new File(dataFolderPath + uuid + ".yml");
+    /**
+     * Encola la escritura del jugador si tiene cambios sin guardar.
+     * Si ya hay una escritura en curso se omite: los cambios siguen marcados
+     * y el siguiente vaciado periódico los recoge.
+     */
+    public void savePlayerData(@NotNull UUID playerId) {
+        submitSaves(List.of(playerId));
+    }
 
-                if (!file.getParentFile().exists() && !file.getParentFile().
-                        mkdirs()) {
-                    throw new IOException("No se pudo crear el directorio de datos");
+    /**
+     * Guarda en segundo plano todos los jugadores con cambios pendientes.
+     * @return número de jugadores incluidos en el lote
+     */
+    public int saveDirtyPlayers() {
+        if (journal != null) {
+            // Con el diario en error una generación puede estar mezclada en el archivo de otra
+            if (!journal.isFailed()) {
+                releaseSavedGenerations();
+            }
+            PlayerJournal.Generation generation = journal.rotate();
+            if (generation != null) {
+                // Versión en memoria de cada jugador al cerrar la generación: cuando esté guardada, sobra
+                Map<UUID, Long> requiredVersions = new HashMap<>();
+                for (UUID playerId : generation.players()) {
+                    PlayerData pd = findPlayerData(playerId);
+                    if (pd != null) {
+                        requiredVersions.put(playerId, pd.getVersion());
+                    }
                 }
+                sealedGenerations.add(new SealedGeneration(generation.id(), requiredVersions));
+            }
+        }
 
-                // Crear directorio si no existe
-                //file.getParentFile().mkdirs();
-
-                YamlConfiguration data = new YamlConfiguration();
-                PlayerData pd = getPlayerData(player);
-
-                // Guardar datos básicos
-                data.set("player-data.level", pd.getLevel());
-                data.set("player-data.xp", pd.getXp());
-                data.set("player-data.available-points", pd.getAvailablePoints());
-
-                // Guardar atributos
-                data.set("player-data.attributes.strength", pd.getStrength());
-                data.set("player-data.attributes.dexterity", pd.getDexterity());
-                data.set("player-data.attributes.constitution", pd.getConstitution());
+        List<UUID> playerIds = new ArrayList<>(sessions.keySet());
+        sessionCache.forEach((playerId, pd) -> {
+            if (pd.isDirty()) {
+                playerIds.add(playerId);
+            }
+        });
+        int queued = submitSaves(playerIds);
+        sessionCache.evict();
+        return queued;
+    }
 
-                // Guardar maná
-                data.set("player-data.mana", pd.getMana());
-                data.set("player-data.max-mana", pd.getMaxMana());
+    /**
+     * Borra las generaciones ya guardadas empezando por la más antigua. Se detiene en la
+     * primera con cambios sin guardar: las entradas llevan valores absolutos, y si se
+     * borrara una generación posterior dejando la antigua, al recuperarla tras un corte
+     * pisaría datos más recientes ya guardados.
+     */
+    private void releaseSavedGenerations() {
+        Iterator<SealedGeneration> iterator = sealedGenerations.iterator();
+        while (iterator.hasNext()) {
+            SealedGeneration sealed = iterator.next();
+            for (Map.Entry<UUID, Long> required : sealed.requiredVersions().entrySet()) {
+                PlayerData pd = findPlayerData(required.getKey());
+                if (pd != null && !pd.isSavedUpTo(required.getValue())) {
+                    return;
+                }
+            }
+            journal.delete(sealed.id());
+            iterator.remove();
+        }
+    }
 
-                // Guardar clase
-                data.set("player-data.class", pd.getPlayerClass());
+    /**
+     * Copia en el hilo principal los jugadores con cambios y los escribe como un único lote.
+     */
+    private int submitSaves(@NotNull Collection<UUID> playerIds) {
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>();
+        List<PlayerData> sources = new ArrayList<>();
+        for (UUID playerId : playerIds) {
+            PlayerData pd = findPlayerData(playerId);
+            if (pd == null || !pd.isDirty() || unreadablePlayers.contains(playerId) || !pendingSaves.add(playerId)) {
+                continue;
+            }
+            snapshots.add(pd.snapshot(playerId));
+            sources.add(pd);
+        }
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
 
-                // Guardar metadata
-                if (!pd.getAllMetadata().isEmpty()) {
-                    data.set("player-data.metadata", new HashMap<>(pd.getAllMetadata()));
+        ioExecutor.execute(() -> {
+            try {
+                dataStore.saveAll(snapshots);
+                retireLegacyData(snapshots);
+                // Solo se actualiza la marca volátil de guardado, nunca los datos
+                for (int i = 0; i < snapshots.size(); i++) {
+                    sources.get(i).markSaved(snapshots.get(i).version());
                 }
-
-                // Guardar archivo
-                data.save(file);
-                plugin.getLogger().info("Datos de " + player.getName() + " guardados correctamente");
             } catch (IOException e) {
                 plugin.getLogger().severe("Error crítico al guardar datos: " + e.getMessage());
             } finally {
-                pendingSaves.remove(player.getUniqueId());
+                snapshots.forEach(snapshot -> pendingSaves.remove(snapshot.playerId()));
             }
         });
+        return snapshots.size();
+    }
+
+    /**
+     * Consulta el ranking por nivel en el executor de I/O. Los jugadores en memoria con
+     * cambios sin guardar entran con sus valores actuales, copiados aquí en el hilo principal.
+     */
+    public @NotNull CompletableFuture<List<PlayerDataStore.RankingEntry>> fetchTopPlayers(int limit) {
+        Map<UUID, PlayerDataStore.RankingEntry> live = new HashMap<>();
+        BiConsumer<UUID, PlayerData> collectDirty = (playerId, pd) -> {
+            if (pd.isDirty()) {
+                live.put(playerId, new PlayerDataStore.RankingEntry(playerId, pd.getLevel(), pd.getXp(), pd.getPlayerClass()));
+            }
+        };
+        sessions.forEach((playerId, session) -> collectDirty.accept(playerId, session.getData()));
+        sessionCache.forEach(collectDirty);
+
+        return CompletableFuture.supplyAsync(() -> {
+            List<PlayerDataStore.RankingEntry> stored;
+            try {
+                // Con margen: los que están en memoria pueden ocupar puestos del resultado guardado
+                stored = dataStore.topByLevel(limit + live.size());
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
 
+            List<PlayerDataStore.RankingEntry> merged = new ArrayList<>(live.values());
+            for (PlayerDataStore.RankingEntry entry : stored) {
+                if (!live.containsKey(entry.playerId())) {
+                    merged.add(entry);
+                }
+            }
+            merged.sort(Comparator.comparingInt(PlayerDataStore.RankingEntry::level)
+                    .thenComparingDouble(PlayerDataStore.RankingEntry::xp)
+                    .reversed());
+            return merged.size() > limit ? List.copyOf(merged.subList(0, limit)) : merged;
+        }, ioExecutor);
     }
 
-    public void loadPlayerData(@NotNull Player player) {
+    /**
+     * Lee y decodifica los datos del jugador en el executor de I/O.
+     * Se llama desde AsyncPlayerPreLoginEvent, nunca desde el hilo principal.
+     * @return false si sus datos guardados no se pueden leer y no debe entrar
+     */
+    public boolean preloadPlayerData(@NotNull UUID playerId, @NotNull String playerName) {
+        purgeExpiredPendingSessions();
+        if (journalBlockedPlayers.contains(playerId)) {
+            return false;
+        }
+        if (sessions.containsKey(playerId) || sessionCache.contains(playerId)) {
+            return true; // Sigue en memoria, no hace falta tocar el disco
+        }
+
+        try {
+            PlayerData pd = ioExecutor.submit(() -> readPlayerData(playerId, playerName))
+                    .get(PRELOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            pendingSessions.put(playerId, new PendingSession(pd, System.currentTimeMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.getLogger().severe("Error al cargar datos de " + playerName + ": " + e.getCause().getMessage());
+            return false;
+        } catch (TimeoutException e) {
+            // Se reintentará de forma síncrona al entrar
+            plugin.getLogger().warning("No se pudieron precargar los datos de " + playerName + ": " + e);
+        }
+        return true;
+    }
+
+    /**
+     * Adjunta los datos precargados al jugador y aplica sus efectos una sola vez.
+     */
+    public void attachPlayerData(@NotNull Player player) {
         UUID playerId = player.getUniqueId();
-        File file = new File(dataFolderPath + playerId + ".yml");
+        PendingSession pending = pendingSessions.remove(playerId);
+
+        boolean newPlayer;
+        PlayerData cached;
+        if (sessions.containsKey(playerId)) {
+            newPlayer = false;
+        } else if ((cached = sessionCache.take(playerId)) != null) {
+            sessionCache.recordHit();
+            newPlayer = false;
+            sessions.put(playerId, new PlayerSession(playerId, cached));
+        } else if (pending != null) {
+            sessionCache.recordMiss();
+            newPlayer = pending.data() == null;
+            sessions.put(playerId, new PlayerSession(playerId, newPlayer ? createNewPlayerData() : pending.data()));
+        } else {
+            // Respaldo si la precarga falló o no se ejecutó
+            sessionCache.recordMiss();
+            PlayerData pd;
+            try {
+                pd = readPlayerData(playerId, player.getName());
+            } catch (IOException e) {
+                plugin.getLogger().severe("Error al cargar datos de " + player.getName() + ": " + e.getMessage()
+                        + ". No se guardará nada de esta sesión");
+                unreadablePlayers.add(playerId);
+                // Sesión temporal con valores por defecto hasta la expulsión; nunca se guarda
+                sessions.put(playerId, new PlayerSession(playerId, createNewPlayerData()));
+                Bukkit.getScheduler().runTask(plugin, () -> player.kick(Component.text(
+                        "No se pudieron cargar tus datos. Avisa a un administrador.", NamedTextColor.RED)));
+                return;
+            }
+            newPlayer = pd == null;
+            sessions.put(playerId, new PlayerSession(playerId, newPlayer ? createNewPlayerData() : pd));
+        }
 
-        if (!file.exists()) {
+        if (newPlayer) {
             handleNewPlayerSetup(player);
-            return;
+            // setPlayerClass ya aplica los efectos al asignar la clase por defecto
+            if (!getClassManager().hasDefaultClass()) {
+                applyAllAttributeEffects(player);
+            }
+        } else {
+            applyAllAttributeEffects(player);
         }
+        updatePlayerDisplay(player);
+    }
 
-        try {
-            YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
+    public void discardPendingSession(@NotNull UUID playerId) {
+        pendingSessions.remove(playerId);
+    }
 
-            // Verificar estructura básica
-            if (!data.isConfigurationSection("player-data")) {
-                throw new IllegalStateException("Estructura de datos inválida");
+    private void purgeExpiredPendingSessions() {
+        long now = System.currentTimeMillis();
+        pendingSessions.values().removeIf(pending -> now - pending.loadedAt() > PENDING_SESSION_TTL_MS);
+    }
+
+    /**
+     * @return los datos guardados, o {@code null} si el jugador no existe (jugador nuevo)
+     * @throws IOException si existen pero no se pueden leer; nunca se sustituyen por datos nuevos
+     */
+    private @Nullable PlayerData readPlayerData(@NotNull UUID playerId, @NotNull String playerName) throws IOException {
+        PlayerData pd = dataStore.load(playerId);
+        if (pd == null && legacyStore != null) {
+            pd = legacyStore.load(playerId);
+            if (pd != null) {
+                // Pendiente de escribir en el almacén actual
+                pd.markDirty();
+                legacyMigrations.add(playerId);
             }
+        }
+        if (pd != null && pd.isDirty()) {
+            plugin.getLogger().info("Datos de " + playerName + " migrados al almacenamiento actual");
+        }
+        return pd;
+    }
 
-            // Cargar datos básicos
-            int level = data.getInt("player-data.level", defaultLevel);
-            float xp = (float) data.getDouble("player-data.xp", defaultXP);
-            int availablePoints = data.getInt("player-data.available-points", defaultAvailablePoints);
+    /**
+     * Aparta los archivos antiguos de los jugadores migrados que ya están guardados en el
+     * almacén actual. Si falla se reintenta en el siguiente guardado del jugador.
+     */
+    private void retireLegacyData(@NotNull Collection<PlayerDataSnapshot> saved) {
+        if (legacyStore == null || legacyMigrations.isEmpty()) {
+            return;
+        }
+        for (PlayerDataSnapshot snapshot : saved) {
+            UUID playerId = snapshot.playerId();
+            if (!legacyMigrations.contains(playerId)) continue;
+            try {
+                legacyStore.retire(playerId);
+                legacyMigrations.remove(playerId);
+            } catch (IOException e) {
+                plugin.getLogger().warning("No se pudieron apartar los archivos migrados de " + playerId + ": " + e.getMessage());
+            }
+        }
+    }
 
-            // Cargar atributos
-            int strength = data.getInt("player-data.attributes.strength", defaultStrength);
-            int dexterity = data.getInt("player-data.attributes.dexterity", defaultDexterity);
-            int constitution = data.getInt("player-data.attributes.constitution", defaultConstitution);
+    /**
+     * Guardado final al desactivar el plugin. Escribe de forma síncrona todos los jugadores
+     * con cambios, repartidos en varios hilos y con un tiempo máximo (storage.shutdown-timeout).
+     * Solo se ejecuta una vez aunque se llame varias.
+     */
+    public void shutdown() {
+        if (!shutDown.compareAndSet(false, true)) {
+            return;
+        }
 
-            // Cargar maná
-            int mana = data.getInt("player-data.mana", defaultMana);
-            int maxMana = data.getInt("player-data.max-mana", defaultMaxMana);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(Math.max(1, config.getInt("storage.shutdown-timeout", 10)));
+        pendingSessions.clear();
+        effectReapplier.cancel();
+        levelPrefixes.clear();
+        xpAggregator.flush();
 
-            // Cargar clase
-            String playerClass = data.getString("player-data.class", defaultClass);
+        // Las escrituras ya encoladas van primero: llevan copias más antiguas
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                plugin.getLogger().warning("Algunas escrituras de datos no terminaron a tiempo");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
-            // Crear PlayerData
-            PlayerData pd = new PlayerData(level, xp, availablePoints, strength, dexterity,
-                    constitution, mana, maxMana, playerClass);
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>();
+        List<PlayerData> sources = new ArrayList<>();
+        BiConsumer<UUID, PlayerData> collectDirty = (playerId, pd) -> {
+            if (pd.isDirty() && !unreadablePlayers.contains(playerId)) {
+                snapshots.add(pd.snapshot(playerId));
+                sources.add(pd);
+            }
+        };
+        sessions.forEach((playerId, session) -> collectDirty.accept(playerId, session.getData()));
+        sessionCache.forEach(collectDirty);
+
+        int flushed = flushInParallel(snapshots, sources, deadline);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (flushed < snapshots.size()) {
+            plugin.getLogger().severe("Guardado de apagado incompleto: " + flushed + "/" + snapshots.size()
+                    + " jugadores en " + elapsedMs + " ms");
+        } else {
+            plugin.getLogger().info("Guardado de apagado: " + flushed + " jugadores en " + elapsedMs + " ms");
+        }
 
-            // Cargar metadata
-            if (data.isConfigurationSection("player-data.metadata")) {
-                Objects.requireNonNull(data.getConfigurationSection("player-data.metadata")).getValues(false)
-                        .forEach((key, value) -> pd.setMetadata(key, (int) value));
+        if (journal != null) {
+            // Si todo quedó guardado el diario ya no hace falta
+            boolean allSaved = flushed == snapshots.size();
+            if (allSaved) {
+                releaseSavedGenerations();
             }
+            journal.close(allSaved);
+        }
 
-            playerDataMap.put(playerId, pd);
-            plugin.getLogger().info("Datos de " + player.getName() + " cargados correctamente");
+        try {
+            dataStore.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Error al cerrar el almacenamiento de datos: " + e.getMessage());
+        }
+    }
 
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error al cargar datos de " + player.getName() + ": " + e.getMessage());
-            playerDataMap.put(playerId, createNewPlayerData());
+    /**
+     * Solo se reparte en varios hilos si el almacén admite escrituras concurrentes; si no,
+     * un único lote evita pagar una transacción o un fsync por trozo. Al llegar al límite
+     * no se interrumpe a nadie: una escritura en un FileChannel interrumpida cierra el canal.
+     * @return número de jugadores guardados antes del límite
+     */
+    private int flushInParallel(@NotNull List<PlayerDataSnapshot> snapshots, @NotNull List<PlayerData> sources, long deadline) {
+        if (snapshots.isEmpty()) {
+            return 0;
         }
 
-        applyAllAttributeEffects(player);
-        updatePlayerDisplay(player);
+        int threads = dataStore.supportsConcurrentWrites()
+                ? Math.min(snapshots.size(), Math.max(1, config.getInt("storage.shutdown-threads", 4)))
+                : 1;
+        int chunkSize = (snapshots.size() + threads - 1) / threads;
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int from = 0; from < snapshots.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, snapshots.size());
+            List<PlayerDataSnapshot> chunk = snapshots.subList(from, to);
+            List<PlayerData> chunkSources = sources.subList(from, to);
+            tasks.add(() -> {
+                dataStore.saveAll(chunk);
+                retireLegacyData(chunk);
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunkSources.get(i).markSaved(chunk.get(i).version());
+                }
+                return chunk.size();
+            });
+        }
+
+        ExecutorService executor = createExecutor(tasks.size(), "RPGStats-Shutdown-");
+        List<Future<Integer>> futures = new ArrayList<>();
+        tasks.forEach(task -> futures.add(executor.submit(task)));
+        executor.shutdown();
+
+        int flushed = 0;
+        try {
+            for (Future<Integer> future : futures) {
+                try {
+                    flushed += future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // Sin terminar al llegar al límite: sigue en segundo plano y el diario se conserva
+                } catch (ExecutionException e) {
+                    plugin.getLogger().severe("Error crítico al guardar datos: " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return flushed;
     }
 
     public void handleNewPlayerSetup(@NotNull Player player) {
@@ -205,77 +687,145 @@ public class PlayerProgress {
         PlayerData pd = getPlayerData(player);
         pd.setLevel(1);
         pd.setXp(0);
+        journalLevel(player, pd);
+        journalXp(player, pd);
     }
 
     public void updatePlayerDisplay(@NotNull Player player) {
+        PlayerSession session = sessions.get(player.getUniqueId());
+        if (session != null) {
+            updatePlayerDisplay(player, session);
+        }
+    }
+
+    private void updatePlayerDisplay(@NotNull Player player, @NotNull PlayerSession session) {
         if (xpDisplay != null) {
-            xpDisplay.updateDisplay(player);
+            xpDisplay.markDirty(player, session);
         }
+        levelPrefixes.markChanged(player, session);
     }
 
     public void addXP(@NotNull Player player, @NotNull String actionType, float amount) {
         if (amount <= 0) return;
 
-        PlayerData pd = getPlayerData(player);
-        float multiplier = getXPMultiplier(player, actionType);
+        // Una sola búsqueda de sesión para todo el camino de XP
+        PlayerSession session = getSession(player);
+        PlayerData pd = session.getData();
+        float multiplier = getXPMultiplier(session, actionType);
         float finalXP = amount * multiplier;
 
         // Añadir XP directamente sin recursión
         pd.setXp(pd.getXp() + finalXP);
-        updatePlayerDisplay(player);
+        journalXp(player, pd);
+        updatePlayerDisplay(player, session);
 
-        player.sendActionBar(Component.text("+" + finalXP + "XP (" + actionType + ")").color(NamedTextColor.GREEN));
+        HudTemplates hud = getSettings().getHudTemplates();
+        if (hud.getMode().usesActionBar()) {
+            player.sendActionBar(hud.renderXpGain(finalXP, getSourceName(actionType)));
+            session.setXpGainTick(Bukkit.getCurrentTick());
+        }
 
         // Verificar subida de nivel
-        checkLevelUp(player);
+        checkLevelUp(player, session);
     }
 
-    private void checkLevelUp(@NotNull Player player) {
-        PlayerData pd = getPlayerData(player);
-        float xpNeeded = calculateXPForNextLevel(pd.getLevel());
+    /**
+     * Encola XP (y maná) de un evento; se aplica junto con el resto del tick.
+     */
+    public void queueXP(@NotNull Player player, @NotNull String actionType, float amount, int mana) {
+        xpAggregator.add(player, actionType, amount, mana);
+    }
 
-        while (pd.getXp() >= xpNeeded && pd.getLevel() < config.getInt("levels.max-level", 100)) {
-            levelUp(player);
-            xpNeeded = calculateXPForNextLevel(pd.getLevel()); // Recalcular para el nuevo nivel
+    /**
+     * Aplica la XP acumulada de un tick: un solo guardado en el diario, una sola
+     * comprobación de nivel, una actualización del HUD y un mensaje.
+     */
+    void applyXPBatch(@NotNull Player player, @NotNull Map<String, Float> amounts, int mana) {
+        PlayerSession session = getSession(player);
+        PlayerData pd = session.getData();
+
+        float totalXP = 0;
+        StringJoiner sources = new StringJoiner(", ");
+        for (Map.Entry<String, Float> entry : amounts.entrySet()) {
+            totalXP += entry.getValue() * getXPMultiplier(session, entry.getKey());
+            sources.add(getSourceName(entry.getKey()));
+        }
+
+        if (mana > 0) {
+            pd.setMana(Math.min(pd.getMana() + mana, pd.getMaxMana()));
+        }
+        if (totalXP > 0) {
+            pd.setXp(pd.getXp() + totalXP);
+            journalXp(player, pd);
+            // En modo barra de jefe no se usa la action bar
+            HudTemplates hud = getSettings().getHudTemplates();
+            if (hud.getMode().usesActionBar()) {
+                player.sendActionBar(hud.renderXpGain(totalXP, sources.toString()));
+                // El HUD no la pisa en el siguiente tick; se redibuja pasado el intervalo
+                session.setXpGainTick(Bukkit.getCurrentTick());
+            }
+        }
+        updatePlayerDisplay(player, session);
+
+        if (totalXP > 0) {
+            checkLevelUp(player, session);
         }
     }
 
-    private void levelUp(@NotNull Player player) {
-        PlayerData pd = getPlayerData(player);
+    private static @NotNull String getSourceName(@NotNull String actionType) {
+        return switch (actionType) {
+            case "mining" -> "Minería";
+            case "combat" -> "Combate";
+            case "farming" -> "Cultivo";
+            default -> actionType;
+        };
+    }
+
+    private void checkLevelUp(@NotNull Player player, @NotNull PlayerSession session) {
+        PlayerData pd = session.getData();
+        // Nivel final por búsqueda binaria sobre la XP acumulada
+        int targetLevel = getLevelCurve().resolveLevel(pd.getLevel(), pd.getXp());
+        if (targetLevel > pd.getLevel()) {
+            levelUp(player, session, targetLevel);
+        }
+    }
+
+    /**
+     * Sube de una vez todos los niveles alcanzados: un solo cálculo de puntos y maná,
+     * un evento con el salto real, un guardado y un único mensaje/título/sonido.
+     */
+    private void levelUp(@NotNull Player player, @NotNull PlayerSession session, int newLevel) {
+        PlayerData pd = session.getData();
         int oldLevel = pd.getLevel();
-        int newLevel = oldLevel + 1;
+        LevelCurve levelCurve = getLevelCurve();
 
-        int pointsGained = calculatePointsGained(newLevel);
-        int manaIncrease = config.getInt("levels.mana-per-level", 5);
+        int pointsGained = levelCurve.getPointsBetween(oldLevel, newLevel);
+        int manaIncrease = levelCurve.getManaPerLevel() * (newLevel - oldLevel);
+        double xpSpent = levelCurve.getCumulativeXP(newLevel) - levelCurve.getCumulativeXP(oldLevel);
 
         // Aplicar cambios
         pd.setLevel(newLevel);
         pd.setAvailablePoints(pd.getAvailablePoints() + pointsGained);
         pd.setMaxMana(pd.getMaxMana() + manaIncrease);
         pd.setMana(pd.getMaxMana());
-
-        // Solo restar XP si no fue un setLevel por comando
-        if (pd.getXp() >= calculateXPForNextLevel(oldLevel)) {
-            pd.setXp(pd.getXp() - calculateXPForNextLevel(oldLevel));
-        } else {
-            pd.setXp(0);
-        }
+        pd.setXp((float) Math.max(0.0, pd.getXp() - xpSpent));
+        journalLevel(player, pd);
+        journalXp(player, pd);
+        updatePlayerDisplay(player, session);
 
         // Llamar evento
         Bukkit.getPluginManager().callEvent(
                 new PlayerLevelUpEvent(player, oldLevel, newLevel,
                         pointsGained, manaIncrease,
-                        pd.getXp(), calculateXPForNextLevel(newLevel))
+                        pd.getXp(), levelCurve.getXPForNextLevel(newLevel))
         );
 
-        // Guardar cambios
-        savePlayerData(player);
-
         // Llamar a onLevelUp con la nueva lógica
-        onLevelUp(player, pd.getLevel(), player.getUniqueId(), pointsGained, manaIncrease);
+        onLevelUp(player, oldLevel, newLevel, session, pointsGained, manaIncrease);
+        savePlayerData(player.getUniqueId());
     }
 
-    private void onLevelUp(@NotNull Player player, int newLevel, @NotNull UUID playerId,
+    private void onLevelUp(@NotNull Player player, int oldLevel, int newLevel, @NotNull PlayerSession session,
                            int pointsGained, int manaIncrease) {
         // Efectos visuales y de sonido
         player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 0.5f);
@@ -288,17 +838,20 @@ public class PlayerProgress {
                         Duration.ofMillis(500)
                 )));
 
-        // Mensajes especiales cada 5 niveles
-        if (newLevel % 5 == 0) {
-            player.sendMessage(Component.text("¡Has alcanzado el nivel " + newLevel + "! ¡Felicidades", NamedTextColor.GOLD));
+        // Mensajes especiales cada 5 niveles (el último hito superado)
+        int milestone = newLevel / 5 * 5;
+        if (milestone > oldLevel) {
+            player.sendMessage(Component.text("¡Has alcanzado el nivel " + milestone + "! ¡Felicidades", NamedTextColor.GOLD));
         }
 
-        // Bonificaciones de clase
+        // Bonificaciones de clase: se aplican por cada nivel superado, el mensaje solo una vez
         RPGClassManager classManager = getClassManager();
-        String playerClass = getCurrentClass(playerId);
+        String playerClass = session.getCurrentClass();
         if (playerClass != null) {
             player.sendMessage(Component.text("§bBonificación de nivel para " + playerClass, NamedTextColor.AQUA));
-            classManager.checkLevelUpBonuses(player, this, newLevel);
+            for (int level = oldLevel + 1; level <= newLevel; level++) {
+                classManager.checkLevelUpBonuses(player, this, level);
+            }
         }
 
         player.sendMessage(Component.text(String.format(
@@ -307,34 +860,49 @@ public class PlayerProgress {
     }
 
 
-    private int calculatePointsGained(int newLevel) {
-        int basePoints = config.getInt("levels.points-per-level", 1);
-        int extraPoints = 0;
-
-        int interval = config.getInt("levels.extra-point-interval", 5);
-        if (interval > 0 && newLevel % interval == 0) {
-            extraPoints = config.getInt("levels.extra-point-amount", 1);
-        }
-        return basePoints + extraPoints;
+    public float getXPToNextLevel(@NotNull Player player) {
+        return getLevelCurve().getXPForNextLevel(getPlayerData(player).getLevel());
     }
 
-    public float getXPToNextLevel(@NotNull Player player) {
-        return calculateXPForNextLevel(getPlayerData(player).getLevel());
+    public float getXPToNextLevel(int level) {
+        return getLevelCurve().getXPForNextLevel(level);
     }
 
 
-    private float calculateXPForNextLevel(int level) {
-        int base = config.getInt("levels.xp-base", 100);
-        int increment = config.getInt("levels.xp-increment", 50);
-        float scaling = (float) config.getDouble("levels.xp-scaling", 1.1);
 
-        // Fórmula exponencial para requerimientos de XP
-        return base + (increment * level) * (float) Math.pow(scaling, level);
+    private float getXPMultiplier(@NotNull PlayerSession session, @NotNull String actionType) {
+        XPSource source = XPSource.fromKey(actionType);
+        if (source == null) {
+            return computeXPMultiplier(session.getData(), actionType);
+        }
+        return getXPMultipliers(session).multipliers()[source.ordinal()];
+    }
+
+    /**
+     * Multiplicadores de la sesión, recalculados solo si cambiaron sus atributos,
+     * su clase o la configuración desde la última vez.
+     */
+    private @NotNull XPMultipliers getXPMultipliers(@NotNull PlayerSession session) {
+        XPMultipliers cached = session.getXpMultipliers();
+        if (cached != null && cached.generation() == multiplierGeneration) {
+            return cached;
+        }
+
+        PlayerData pd = session.getData();
+        float[] multipliers = new float[XPSource.count()];
+        float[] bonuses = new float[XPSource.count()];
+        for (int i = 0; i < multipliers.length; i++) {
+            XPSource source = XPSource.byIndex(i);
+            multipliers[i] = computeXPMultiplier(pd, source.getKey());
+            bonuses[i] = computeXPBonus(pd, source);
+        }
 
+        XPMultipliers computed = new XPMultipliers(multiplierGeneration, multipliers, bonuses);
+        session.setXpMultipliers(computed);
+        return computed;
     }
 
-    private float getXPMultiplier(@NotNull Player player, @NotNull String actionType) {
-        PlayerData pd = getPlayerData(player);
+    private float computeXPMultiplier(@NotNull PlayerData pd, @NotNull String actionType) {
         float multiplier = 1.0f;
 
         // Multiplicadores por atributos
@@ -351,13 +919,14 @@ public class PlayerProgress {
         }
 
         // Multiplicador por clase
-        RPGClassManager.RPGClass rpgClass = classManager.getRPGClass(pd.getPlayerClass());
+        RpgConfig current = settings;
+        RPGClassManager.RPGClass rpgClass = current.getClassManager().getRPGClass(pd.getPlayerClass());
         if (rpgClass != null) {
             multiplier *= rpgClass.getXPMultiplier(actionType);
         }
 
         // Multiplicador global de configuración
-        multiplier *= (float) config.getDouble("xp-settings.global-multiplier", 1.0);
+        multiplier *= current.getGlobalXPMultiplier();
 
         return Math.max(0.1f, Math.min(multiplier, 5.0f)); // Limitar entre 0.1x y 5.0x
     }
@@ -381,6 +950,7 @@ public class PlayerProgress {
         if (pd.getMana() > newMaxMana) {
             pd.setMana(newMaxMana);
         }
+        journalLevel(player, pd);
 
         if (oldMaxMana != newMaxMana) {
             plugin.getServer().getPluginManager().callEvent(
@@ -430,29 +1000,36 @@ public class PlayerProgress {
 
     public void setAttribute(@NotNull Player player, @NotNull String attribute,
                              int value, boolean isLevelUp) {
-        PlayerData pd = getPlayerData(player);
+        PlayerSession session = getSession(player);
+        PlayerData pd = session.getData();
         int oldValue = getAttribute(player, attribute);
         switch (attribute.toLowerCase()) {
             case "fuerza":
                 pd.setStrength(value);
+                session.invalidateXpMultipliers();
                 applyStrengthEffects(player, value);
                 break;
             case "destreza":
                 pd.setDexterity(value);
+                session.invalidateXpMultipliers();
                 applyDexterityEffects(player, value);
                 break;
             case "constitucion":
                 pd.setConstitution(value);
+                session.invalidateXpMultipliers();
                 applyConstitutionEffects(player, value);
                 break;
             default:
                 pd.setMetadata(attribute, value);
-                attributeManager.applyAttributeEffects(player, attribute, value);
+                attributeManager.applyAttributeEffects(player, session, attribute, value);
+        }
+        if (journal != null && oldValue != value) {
+            journal.logAttribute(player.getUniqueId(), attribute, value, pd.getAvailablePoints());
         }
         plugin.getServer().getPluginManager().callEvent(
                 new AttributeChangeEvent(player, attribute, oldValue, value, isLevelUp));
 
-        updatePlayerDisplay(player);
+        updatePlayerDisplay(player, session);
     }
 
     public void addAttributePoint(@NotNull Player player, @NotNull String attribute) {
@@ -473,11 +1050,12 @@ public class PlayerProgress {
     }
 
     public void applyAllAttributeEffects(@NotNull Player player) {
-        PlayerData pd = getPlayerData(player);
+        PlayerSession session = getSession(player);
+        PlayerData pd = session.getData();
         setAttribute(player, "fuerza", pd.getStrength(), false);
         setAttribute(player, "destreza", pd.getDexterity(), false);
         setAttribute(player, "constitucion", pd.getConstitution(), false);
-        pd.getAllMetadata().forEach((attr, value) -> attributeManager.applyAttributeEffects(player, attr, value));
+        pd.getAllMetadata().forEach((attr, value) -> attributeManager.applyAttributeEffects(player, session, attr, value));
     }
 
     private void applyStrengthEffects(@NotNull Player player, int level) {
@@ -499,7 +1077,8 @@ public class PlayerProgress {
     }
 
     public String getCurrentClass(@NotNull UUID playerId) {
-        return playerClasses.get(playerId);
+        PlayerSession session = sessions.get(playerId);
+        return session != null ? session.getCurrentClass() : null;
     }
 
     public boolean setPlayerClass(@NotNull Player player, @NotNull String classId) {
@@ -512,7 +1091,8 @@ public class PlayerProgress {
             return false;
         }
 
-        PlayerData pd = getPlayerData(player);
+        PlayerSession session = getSession(player);
+        PlayerData pd = session.getData();
         String currentClass = pd.getPlayerClass();
 
         if (lowerClassId.equals(currentClass)) {
@@ -525,7 +1105,11 @@ public class PlayerProgress {
         }
 
         pd.setPlayerClass(lowerClassId);
-        playerClasses.put(player.getUniqueId(), lowerClassId);
+        session.setCurrentClass(lowerClassId);
+        session.invalidateXpMultipliers();
+        if (journal != null) {
+            journal.logClass(player.getUniqueId(), lowerClassId);
+        }
 
         classManager.sendClassBenefitsMessage(player, lowerClassId);
         applyClassBonuses(player, lowerClassId);
@@ -556,7 +1140,7 @@ public class PlayerProgress {
     }
 
     private void applyClassBonuses(@NotNull Player player, @NotNull String className) {
-        RPGClassManager.RPGClass rpgClass = classManager.getRPGClass(className);
+        RPGClassManager.RPGClass rpgClass = getClassManager().getRPGClass(className);
         if (rpgClass != null) {
             rpgClass.getAttributeBonuses().forEach((attr, bonus) -> {
                 int current = getAttribute(player, attr);
@@ -568,7 +1152,7 @@ public class PlayerProgress {
     }
 
     private void removeClassBonuses(@NotNull Player player, @NotNull String className) {
-        RPGClassManager.RPGClass rpgClass = classManager.getRPGClass(className);
+        RPGClassManager.RPGClass rpgClass = getClassManager().getRPGClass(className);
         if (rpgClass != null) {
             rpgClass.getAttributeBonuses().forEach((attr, bonus) -> {
                 int current = getAttribute(player, attr);
@@ -579,6 +1163,7 @@ public class PlayerProgress {
 
     public List<String> getAvailableClasses(@NotNull Player player) {
         Objects.requireNonNull(player, "El jugador no puede ser nulo");
+        RPGClassManager classManager = getClassManager();
         return classManager.getAvailableClasses().keySet().stream()
                 .filter(classId -> player.hasPermission("rpgstats.class." + classId) ||
                         classId.equals(classManager.getDefaultClass()))
@@ -604,7 +1189,7 @@ public class PlayerProgress {
         // Mostrar información básica
         player.sendMessage("§6=== ESTADÍSTICAS DETALLADAS ===");
         player.sendMessage(String.format("§eNivel: §a%d §7(%.1f/%.1f XP)",
-                pd.getLevel(), pd.getXp(), calculateXPForNextLevel(pd.getLevel())));
+                pd.getLevel(), pd.getXp(), getLevelCurve().getXPForNextLevel(pd.getLevel())));
         player.sendMessage(String.format("§ePuntos disponibles: §a%d", pd.getAvailablePoints()));
         player.sendMessage(String.format("§eManá: §b%d/%d", pd.getMana(), pd.getMaxMana()));
 
@@ -629,7 +1214,7 @@ public class PlayerProgress {
         // Mostrar clase si tiene
         if (!pd.getPlayerClass().equals("none")) {
             player.sendMessage(String.format("§6Clase: §e%s",
-                    classManager.getClassDisplayName(pd.getPlayerClass())));
+                    getClassManager().getClassDisplayName(pd.getPlayerClass())));
         }
     }
 
@@ -640,25 +1225,22 @@ public class PlayerProgress {
 
     public void resetPlayerStats(@NotNull Player player) {
         // 1. Resetear atributos en memoria
-        attributeManager.resetPlayerAttributes(player);
-        PlayerData pd = getPlayerData(player);
+        PlayerSession session = getSession(player);
+        attributeManager.resetPlayerAttributes(player, session);
+        PlayerData pd = session.getData();
         String currentClass = pd.getPlayerClass();
         pd.resetStats();
-
-        // 2. Eliminar archivo persistente
-        File playerFile = new File(dataFolderPath, player.getUniqueId() + ".yml");
-        if (playerFile.exists() && !safeDelete(playerFile)) {
-            plugin.getLogger().severe("Error crítico al resetear datos de " + player.getName());
-            player.sendMessage("§c¡Error grave! Contacta con un administrador");
-            return;
+        session.invalidateXpMultipliers();
+        if (journal != null) {
+            journal.logReset(player.getUniqueId());
         }
 
-        // 3. Restaurar clase si era válida
-        if (classManager.isValidClass(currentClass)) {
+        // 2. Restaurar clase si era válida
+        if (getClassManager().isValidClass(currentClass)) {
             setPlayerClass(player, currentClass);
         }
 
-        // 4. Aplicar cambios
+        // 3. Aplicar cambios; el guardado normal sobrescribe el registro con los datos reiniciados
         applyAllAttributeEffects(player);
         updatePlayerDisplay(player);
         savePlayerData(player);
@@ -696,50 +1278,71 @@ public class PlayerProgress {
         }
     }
 
-    private boolean safeDelete(@NotNull File file) {
-        if (!file.exists()) {
-            return true;
+    public @NotNull RpgConfig getSettings() {
+        return settings;
+    }
+
+    /**
+     * Vuelve a leer config.yml y compila la configuración en un hilo de E/S; en el
+     * hilo principal solo se resuelven los registros del servidor y se sustituye la referencia. Si el archivo no es válido se
+     * mantiene la configuración actual y el futuro termina con el error.
+     * <p>
+     * Tras la sustitución empieza una pasada de {@link EffectReapplier} sobre los
+     * jugadores conectados, consultable con {@link #getEffectReapplier()}.
+     */
+    public @NotNull CompletableFuture<RpgConfig> reloadSettings() {
+        CompletableFuture<RpgConfig> result = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(() -> RpgConfig.load(readConfigFile(), plugin, this), ioExecutor)
+                .whenComplete((compiled, error) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (error != null) {
+                        result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                        return;
+                    }
+                    // Los registros del servidor solo se leen aquí, sin carreras con /minecraft:reload
+                    RpgConfig loaded = compiled.resolveRegistries(plugin.getLogger());
+                    this.settings = loaded;
+                    multiplierGeneration++;
+                    effectReapplier.start(loaded.getReapplyBudgetMicros());
+                    levelPrefixes.refresh();
+                    result.complete(loaded);
+                }));
+        return result;
+    }
+
+    private @NotNull FileConfiguration readConfigFile() {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.load(new File(plugin.getDataFolder(), "config.yml"));
+        } catch (IOException | InvalidConfigurationException e) {
+            throw new CompletionException(new IOException("config.yml no es válido: " + e.getMessage(), e));
         }
 
-        int attempts = 0;
-        while (attempts < 3) {
-            if (file.delete()) {
-                return true;
-            }
-            attempts++;
-            try {
-                Thread.sleep(1000); // Espera 1 segundo entre intentos
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
+        InputStream defaults = plugin.getResource("config.yml");
+        if (defaults != null) {
+            config.setDefaults(YamlConfiguration.loadConfiguration(
+                    new InputStreamReader(defaults, StandardCharsets.UTF_8)));
         }
+        return config;
+    }
 
-        plugin.getLogger().warning("No se pudo eliminar el archivo después de 3 intentos: " + file.getPath());
-        return false;
+    public @NotNull EffectReapplier getEffectReapplier() {
+        return effectReapplier;
     }
 
+    public @NotNull LevelPrefixManager getLevelPrefixes() {
+        return levelPrefixes;
+    }
 
-    public void reloadConfig(@NotNull Configuration config) {
-        ConfigurationSection defaults = config.getConfigurationSection("default-stats");
-        if (defaults != null) {
-            this.defaultLevel = defaults.getInt("level", 1);
-            this.defaultXP = (float) defaults.getDouble("xp", 0.0);
-            this.defaultAvailablePoints = defaults.getInt("available-points", 0);
-            this.defaultMana = defaults.getInt("mana", 100);
-            this.defaultMaxMana = defaults.getInt("max-mana", 100);
-
-            ConfigurationSection attrs = defaults.getConfigurationSection("attributes");
-            if (attrs != null) {
-                this.defaultStrength = attrs.getInt("fuerza", 1);
-                this.defaultDexterity = attrs.getInt("destreza", 1);
-                this.defaultConstitution = attrs.getInt("constitucion", 1);
-            }
+    public @NotNull XPTables getXpTables() {
+        return settings.getXpTables();
+    }
 
-            this.defaultClass = defaults.getString("class", "none");
+    public @NotNull ToolCategories getToolCategories() {
+        return settings.getToolCategories();
+    }
 
-            classManager.reload((FileConfiguration) config);
-        }
+    public @NotNull LevelCurve getLevelCurve() {
+        return settings.getLevelCurve();
     }
 
     public int getLevel(@NotNull Player player) {
@@ -752,15 +1355,13 @@ public class PlayerProgress {
 
         if (level > oldLevel) {
             // Calcular puntos ganados por los niveles subidos
-            int pointsGained = 0;
-            for (int i = oldLevel + 1; i <= level; i++) {
-                pointsGained += calculatePointsGained(i);
-            }
+            int pointsGained = getLevelCurve().getPointsBetween(oldLevel, level);
 
             pd.setAvailablePoints(pd.getAvailablePoints() + pointsGained);
         }
 
         pd.setLevel(level);
+        journalLevel(player, pd);
         applyAllAttributeEffects(player); // ¡Importante!
         updatePlayerDisplay(player);
     }
@@ -769,7 +1370,9 @@ public class PlayerProgress {
     }
 
     public void setXP(@NotNull Player player, float xp) {
-       getPlayerData(player).setXp(xp);
+       PlayerData pd = getPlayerData(player);
+       pd.setXp(xp);
+       journalXp(player, pd);
       updatePlayerDisplay(player);
    }
 
@@ -778,48 +1381,74 @@ public class PlayerProgress {
     }
 
     public void setAvailablePoints(@NotNull Player player, int points) {
-        getPlayerData(player).setAvailablePoints(points);
+        PlayerData pd = getPlayerData(player);
+        pd.setAvailablePoints(points);
+        journalLevel(player, pd);
         updatePlayerDisplay(player);
     }
 
+    private void journalXp(@NotNull Player player, @NotNull PlayerData pd) {
+        if (journal != null) {
+            journal.logXp(player.getUniqueId(), pd.getXp());
+        }
+    }
+
+    private void journalLevel(@NotNull Player player, @NotNull PlayerData pd) {
+        if (journal != null) {
+            journal.logLevel(player.getUniqueId(), pd.getLevel(), pd.getAvailablePoints(), pd.getMaxMana());
+        }
+    }
+
     public AttributeManager getAttributeManager() {
         return attributeManager;
     }
 
     public RPGClassManager getClassManager() {
-        return classManager;
+        return settings.getClassManager();
     }
     public float getMiningXPBonus(Player player) {
-        float bonus = 1.0f;
-        PlayerData pd = getPlayerData(player);
+        return getXPMultipliers(getSession(player)).bonuses()[XPSource.MINING.ordinal()];
+    }
 
-        // Bonus por atributos
-        bonus += pd.getStrength() * 0.01f; // +1% por punto de fuerza
-        bonus += pd.getDexterity() * 0.005f; // +0.5% por punto de destreza
+    public float getCombatXPBonus(Player player) {
+        return getXPMultipliers(getSession(player)).bonuses()[XPSource.COMBAT.ordinal()];
+    }
+
+    private float computeXPBonus(@NotNull PlayerData pd, @NotNull XPSource source) {
+        float bonus = 1.0f;
+        switch (source) {
+            case MINING -> {
+                // Bonus por atributos
+                bonus += pd.getStrength() * 0.01f; // +1% por punto de fuerza
+                bonus += pd.getDexterity() * 0.005f; // +0.5% por punto de destreza
+            }
+            case COMBAT -> {
+                bonus += pd.getStrength() * 0.015f; // +1.5% por punto de fuerza
+                bonus += pd.getDexterity() * 0.02f; // +2% por punto de destreza
+            }
+            default -> {
+                return bonus;
+            }
+        }
 
         // Bonus por clase
-        RPGClassManager.RPGClass playerClass = classManager.getRPGClass(pd.getPlayerClass());
+        RPGClassManager.RPGClass playerClass = getClassManager().getRPGClass(pd.getPlayerClass());
         if (playerClass != null) {
-            bonus *= playerClass.getXPMultiplier("mining");
+            bonus *= playerClass.getXPMultiplier(source.getKey());
         }
 
-        return Math.min(bonus, 1.5f); // Máximo 50% de bonus
+        return source == XPSource.MINING
+                ? Math.min(bonus, 1.5f)  // Máximo 50% de bonus
+                : Math.min(bonus, 2.0f); // Máximo 100% de bonus
     }
 
-    public float getCombatXPBonus(Player player) {
-        float bonus = 1.0f;
-        PlayerData pd = getPlayerData(player);
-
-        // Bonus por atributos
-        bonus += pd.getStrength() * 0.015f; // +1.5% por punto de fuerza
-        bonus += pd.getDexterity() * 0.02f; // +2% por punto de destreza
+    private record PendingSession(PlayerData data, long loadedAt) {
+    }
 
-        // Bonus por clase
-        RPGClassManager.RPGClass playerClass = classManager.getRPGClass(pd.getPlayerClass());
-        if (playerClass != null) {
-            bonus *= playerClass.getXPMultiplier("combat");
-        }
+    // Multiplicador y bonus por XPSource de una sesión, válidos para una generación de configuración
+    record XPMultipliers(int generation, float[] multipliers, float[] bonuses) {
+    }
 
-        return Math.min(bonus, 2.0f); // Máximo 100% de bonus
+    private record SealedGeneration(int id, Map<UUID, Long> requiredVersions) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,253 @@
+package rpg.stats.rpg_stats.managers;
+
+import net.kyori.adventure.bossbar.BossBar;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Todo el estado de un jugador conectado en un solo objeto: los datos persistentes
+ * y el estado temporal de cada sistema (cooldowns, HUD, GUI, valores originales).
+ * Se resuelve una vez por evento y se libera entero al desconectarse.
+ * Solo se usa desde el hilo principal.
+ */
+public class PlayerSession {
+    private final UUID playerId;
+    private final PlayerData data;
+
+    // Clase asignada durante esta sesión
+    private String currentClass;
+
+    // AbilityManager: id de habilidad -> fin del cooldown (ms)
+    private final Map<String, Long> cooldowns = new HashMap<>();
+
+    // XPDisplay: pendiente de dibujar, tick a partir del cual se puede y últimos valores enviados
+    private boolean displayDirty;
+    private int nextDisplayTick;
+    private int renderedLevel = -1;
+    private int renderedXpTenths;
+    private int renderedNeededTenths;
+    // Barra de jefe reutilizable, creada la primera vez que se muestra
+    private BossBar bossBar;
+    private boolean bossBarVisible;
+    private int bossBarLevel = -1;
+    private int bossBarPercent = -1;
+    private int bossBarHideTick;
+    // Tick del último mensaje de XP ganada en la action bar
+    private int xpGainTick = Integer.MIN_VALUE;
+    // Barra lateral, null si no está activa
+    private SidebarRenderer.PlayerSidebar sidebar;
+    // Tramo de nivel y clase del prefijo en la lista de jugadores (-1 = sin equipo)
+    private int prefixBucket = -1;
+    private String prefixClass;
+
+    // StatsGUI
+    private String selectedAttribute;
+    private int pendingPoints;
+
+    // AttributeManager: valores base antes de aplicar efectos
+    private Map<String, Double> originalValues;
+
+    // PlayerProgress: multiplicadores de XP precalculados (null = recalcular)
+    private PlayerProgress.XPMultipliers xpMultipliers;
+
+    public PlayerSession(@NotNull UUID playerId, @NotNull PlayerData data) {
+        this.playerId = Objects.requireNonNull(playerId);
+        this.data = Objects.requireNonNull(data);
+    }
+
+    public @NotNull UUID getPlayerId() {
+        return playerId;
+    }
+
+    public @NotNull PlayerData getData() {
+        return data;
+    }
+
+    public @Nullable String getCurrentClass() {
+        return currentClass;
+    }
+
+    public void setCurrentClass(@Nullable String currentClass) {
+        this.currentClass = currentClass;
+    }
+
+    public @NotNull Map<String, Long> getCooldowns() {
+        return cooldowns;
+    }
+
+    public boolean isDisplayDirty() {
+        return displayDirty;
+    }
+
+    public void setDisplayDirty(boolean displayDirty) {
+        this.displayDirty = displayDirty;
+    }
+
+    public int getNextDisplayTick() {
+        return nextDisplayTick;
+    }
+
+    public void setNextDisplayTick(int nextDisplayTick) {
+        this.nextDisplayTick = nextDisplayTick;
+    }
+
+    /**
+     * Guarda los valores del HUD si cambiaron.
+     * @return false si son los mismos que ya se enviaron
+     */
+    public boolean updateRenderedHud(int level, int xpTenths, int neededTenths) {
+        if (level == renderedLevel && xpTenths == renderedXpTenths && neededTenths == renderedNeededTenths) {
+            return false;
+        }
+        this.renderedLevel = level;
+        this.renderedXpTenths = xpTenths;
+        this.renderedNeededTenths = neededTenths;
+        return true;
+    }
+
+    public @Nullable BossBar getBossBar() {
+        return bossBar;
+    }
+
+    public void setBossBar(@Nullable BossBar bossBar) {
+        this.bossBar = bossBar;
+    }
+
+    public boolean isBossBarVisible() {
+        return bossBarVisible;
+    }
+
+    public void setBossBarVisible(boolean bossBarVisible) {
+        this.bossBarVisible = bossBarVisible;
+    }
+
+    /**
+     * Guarda el nivel y el porcentaje de la barra de jefe si cambiaron.
+     * @return false si son los mismos que ya se muestran
+     */
+    public boolean updateBossBar(int level, int percent) {
+        if (level == bossBarLevel && percent == bossBarPercent) {
+            return false;
+        }
+        this.bossBarLevel = level;
+        this.bossBarPercent = percent;
+        return true;
+    }
+
+    public int getBossBarHideTick() {
+        return bossBarHideTick;
+    }
+
+    public void setBossBarHideTick(int bossBarHideTick) {
+        this.bossBarHideTick = bossBarHideTick;
+    }
+
+    public int getXpGainTick() {
+        return xpGainTick;
+    }
+
+    public void setXpGainTick(int xpGainTick) {
+        this.xpGainTick = xpGainTick;
+    }
+
+    public @Nullable SidebarRenderer.PlayerSidebar getSidebar() {
+        return sidebar;
+    }
+
+    public void setSidebar(@Nullable SidebarRenderer.PlayerSidebar sidebar) {
+        this.sidebar = sidebar;
+    }
+
+    /**
+     * @return true si el tramo o la clase cambiaron y hay que mover al jugador de equipo
+     */
+    public boolean updatePrefixGroup(int bucket, @NotNull String playerClass) {
+        if (bucket == prefixBucket && playerClass.equals(prefixClass)) {
+            return false;
+        }
+        prefixBucket = bucket;
+        prefixClass = playerClass;
+        return true;
+    }
+
+    public int getPrefixBucket() {
+        return prefixBucket;
+    }
+
+    public @Nullable String getPrefixClass() {
+        return prefixClass;
+    }
+
+    public void resetPrefixGroup() {
+        prefixBucket = -1;
+        prefixClass = null;
+    }
+
+    public @Nullable String getSelectedAttribute() {
+        return selectedAttribute;
+    }
+
+    public int getPendingPoints() {
+        return pendingPoints;
+    }
+
+    public void selectAttribute(@NotNull String attribute, int pendingPoints) {
+        this.selectedAttribute = attribute;
+        this.pendingPoints = pendingPoints;
+    }
+
+    public void setPendingPoints(int pendingPoints) {
+        this.pendingPoints = pendingPoints;
+    }
+
+    public void clearSelection() {
+        this.selectedAttribute = null;
+        this.pendingPoints = 0;
+    }
+
+    public @Nullable Map<String, Double> getOriginalValues() {
+        return originalValues;
+    }
+
+    public void setOriginalValues(@Nullable Map<String, Double> originalValues) {
+        this.originalValues = originalValues;
+    }
+
+    @Nullable PlayerProgress.XPMultipliers getXpMultipliers() {
+        return xpMultipliers;
+    }
+
+    void setXpMultipliers(@Nullable PlayerProgress.XPMultipliers xpMultipliers) {
+        this.xpMultipliers = xpMultipliers;
+    }
+
+    public void invalidateXpMultipliers() {
+        this.xpMultipliers = null;
+    }
+
+    /**
+     * Libera el estado temporal. Los datos persistentes se conservan.
+     */
+    public void release() {
+        currentClass = null;
+        cooldowns.clear();
+        displayDirty = false;
+        nextDisplayTick = 0;
+        renderedLevel = -1;
+        bossBar = null;
+        bossBarVisible = false;
+        bossBarLevel = -1;
+        bossBarPercent = -1;
+        sidebar = null;
+        xpGainTick = Integer.MIN_VALUE;
+        resetPrefixGroup();
+        clearSelection();
+        originalValues = null;
+        xpMultipliers = null;
+    }
+}
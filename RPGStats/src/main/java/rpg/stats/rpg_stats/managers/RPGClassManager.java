@@ -146,18 +146,6 @@ public class RPGClassManager {
                 ));
     }
 
-    public void reload(@NotNull FileConfiguration newConfig) {
-        Objects.requireNonNull(newConfig, "La configuración no puede ser nula");
-        this.classes.clear();
-        this.defaultClass = newConfig.getString("classes.default-class", "warrior").toLowerCase();
-        loadClasses(newConfig);
-
-        // Validar que la clase por defecto exista
-        if (!classes.containsKey(defaultClass) && !classes.isEmpty()) {
-            defaultClass = classes.keySet().iterator().next();
-        }
-    }
-
     public static class RPGClass {
         private final String id;
         private final String displayName;
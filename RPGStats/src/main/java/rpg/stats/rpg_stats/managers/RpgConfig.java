@@ -0,0 +1,206 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Configuración de juego ya validada: niveles, tablas de XP, atributos, clases y
+ * habilidades. Es inmutable, así que se puede compilar fuera del hilo principal y
+ * publicar con una sola referencia volátil; recargar consiste en sustituirla.
+ * <p>
+ * Los ajustes de {@code storage.*} no forman parte de ella: solo se leen al arrancar.
+ */
+public final class RpgConfig {
+    public record DefaultStats(int level, float xp, int availablePoints,
+                               int strength, int dexterity, int constitution,
+                               int mana, int maxMana, @NotNull String playerClass) {
+    }
+
+    private final XPTables xpTables;
+    private final ToolCategories toolCategories;
+    private final LevelCurve levelCurve;
+    private final float globalXPMultiplier;
+    private final DefaultStats defaultStats;
+    private final Map<String, AttributeConfig> attributes;
+    private final RPGClassManager classManager;
+    private final Map<String, AbilityManager.Ability> abilities;
+    private final boolean debugMode;
+    private final long reapplyBudgetMicros;
+    private final int hudUpdateTicks;
+    private final HudTemplates hudTemplates;
+
+    private RpgConfig(XPTables xpTables, ToolCategories toolCategories, LevelCurve levelCurve,
+                      float globalXPMultiplier, DefaultStats defaultStats,
+                      Map<String, AttributeConfig> attributes, RPGClassManager classManager,
+                      Map<String, AbilityManager.Ability> abilities, boolean debugMode,
+                      long reapplyBudgetMicros, int hudUpdateTicks, HudTemplates hudTemplates) {
+        this.xpTables = xpTables;
+        this.toolCategories = toolCategories;
+        this.levelCurve = levelCurve;
+        this.globalXPMultiplier = globalXPMultiplier;
+        this.defaultStats = defaultStats;
+        this.attributes = attributes;
+        this.classManager = classManager;
+        this.abilities = abilities;
+        this.debugMode = debugMode;
+        this.reapplyBudgetMicros = reapplyBudgetMicros;
+        this.hudUpdateTicks = hudUpdateTicks;
+        this.hudTemplates = hudTemplates;
+    }
+
+    public @NotNull XPTables getXpTables() {
+        return xpTables;
+    }
+
+    public @NotNull ToolCategories getToolCategories() {
+        return toolCategories;
+    }
+
+    public @NotNull LevelCurve getLevelCurve() {
+        return levelCurve;
+    }
+
+    public float getGlobalXPMultiplier() {
+        return globalXPMultiplier;
+    }
+
+    public @NotNull DefaultStats getDefaultStats() {
+        return defaultStats;
+    }
+
+    public @NotNull Map<String, AttributeConfig> getAttributes() {
+        return attributes;
+    }
+
+    public @Nullable AttributeConfig getAttribute(@NotNull String name) {
+        return attributes.get(name.toLowerCase());
+    }
+
+    public @NotNull RPGClassManager getClassManager() {
+        return classManager;
+    }
+
+    public @NotNull Map<String, AbilityManager.Ability> getAbilities() {
+        return abilities;
+    }
+
+    public boolean isDebugMode() {
+        return debugMode;
+    }
+
+    /**
+     * @return tiempo por tick para reaplicar efectos a los jugadores tras una recarga
+     */
+    public long getReapplyBudgetMicros() {
+        return reapplyBudgetMicros;
+    }
+
+    /**
+     * @return ticks mínimos entre dos actualizaciones del HUD de un jugador
+     */
+    public int getHudUpdateTicks() {
+        return hudUpdateTicks;
+    }
+
+    public @NotNull HudTemplates getHudTemplates() {
+        return hudTemplates;
+    }
+
+    /**
+     * Resuelve lo que depende de los registros del servidor: los tags de
+     * {@code tool-categories} y los efectos de las habilidades. Solo desde el hilo
+     * principal, antes de publicarla.
+     */
+    public @NotNull RpgConfig resolveRegistries(@NotNull Logger logger) {
+        Map<String, AbilityManager.Ability> resolvedAbilities = new LinkedHashMap<>();
+        abilities.forEach((id, ability) -> resolvedAbilities.put(id, ability.resolveEffects()));
+        return new RpgConfig(xpTables, toolCategories.resolveTags(logger), levelCurve, globalXPMultiplier,
+                defaultStats, attributes, classManager, Collections.unmodifiableMap(resolvedAbilities),
+                debugMode, reapplyBudgetMicros, hudUpdateTicks, hudTemplates);
+    }
+
+    /**
+     * Compila toda la configuración de juego. No toca el estado del servidor, así
+     * que puede llamarse desde un hilo asíncrono; después hay que llamar a
+     * {@link #resolveRegistries} en el hilo principal.
+     */
+    public static @NotNull RpgConfig load(@NotNull FileConfiguration config,
+                                          @NotNull JavaPlugin plugin,
+                                          @NotNull PlayerProgress progress) {
+        Objects.requireNonNull(config, "La configuración no puede ser nula");
+        Logger logger = plugin.getLogger();
+
+        return new RpgConfig(
+                XPTables.compile(config, logger),
+                ToolCategories.compile(config, logger),
+                LevelCurve.compile(config, logger),
+                (float) config.getDouble("xp-settings.global-multiplier", 1.0),
+                loadDefaultStats(config),
+                loadAttributes(config, logger),
+                new RPGClassManager(config),
+                loadAbilities(config, plugin, progress),
+                config.getBoolean("debug-mode", false),
+                Math.max(100, config.getLong("reload.reapply-budget-us", 2000)),
+                // xp-display.update-interval está en segundos y admite decimales
+                (int) Math.max(1, Math.round(config.getDouble("xp-display.update-interval", 1.0) * 20)),
+                HudTemplates.compile(config, logger));
+    }
+
+    private static @NotNull DefaultStats loadDefaultStats(@NotNull ConfigurationSection config) {
+        return new DefaultStats(
+                config.getInt("default-stats.level", 1),
+                (float) config.getDouble("default-stats.xp", 0.0),
+                config.getInt("default-stats.available-points", 0),
+                config.getInt("default-stats.attributes.fuerza", 1),
+                config.getInt("default-stats.attributes.destreza", 1),
+                config.getInt("default-stats.attributes.constitucion", 1),
+                config.getInt("default-stats.mana", 100),
+                config.getInt("default-stats.max-mana", 100),
+                config.getString("default-stats.class", "none"));
+    }
+
+    private static @NotNull Map<String, AttributeConfig> loadAttributes(@NotNull ConfigurationSection config,
+                                                                        @NotNull Logger logger) {
+        ConfigurationSection section = config.getConfigurationSection("attributes");
+        if (section == null) {
+            logger.warning("No se encontró la sección 'attributes' en config.yml");
+            return Collections.emptyMap();
+        }
+
+        // Se conserva el orden del archivo para los listados y la GUI
+        Map<String, AttributeConfig> attributes = new LinkedHashMap<>();
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection attrSection = section.getConfigurationSection(key);
+            if (attrSection != null) {
+                attributes.put(key.toLowerCase(), new AttributeConfig(attrSection, logger));
+            }
+        }
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    private static @NotNull Map<String, AbilityManager.Ability> loadAbilities(@NotNull ConfigurationSection config,
+                                                                             @NotNull JavaPlugin plugin,
+                                                                             @NotNull PlayerProgress progress) {
+        ConfigurationSection section = config.getConfigurationSection("abilities");
+        if (section == null) {
+            plugin.getLogger().warning("No se encontró la sección 'abilities' en config.yml");
+            return Collections.emptyMap();
+        }
+
+        Map<String, AbilityManager.Ability> abilities = new LinkedHashMap<>();
+        for (String abilityId : section.getKeys(false)) {
+            ConfigurationSection abilitySection = section.getConfigurationSection(abilityId);
+            if (abilitySection != null) {
+                abilities.put(abilityId.toLowerCase(),
+                        new AbilityManager.Ability(abilityId, abilitySection, progress, plugin));
+            }
+        }
+        return Collections.unmodifiableMap(abilities);
+    }
+}
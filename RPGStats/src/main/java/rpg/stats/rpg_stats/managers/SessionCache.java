@@ -0,0 +1,103 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Datos de jugadores que se han desconectado hace poco. Si vuelven a entrar
+ * antes de que caduquen no hace falta leer el disco.
+ * Acotada por número de entradas y por tiempo; una entrada solo se descarta
+ * cuando sus cambios ya están guardados.
+ */
+public class SessionCache {
+    // Orden de inserción: la primera entrada es la desconexión más antigua
+    private final LinkedHashMap<UUID, CachedSession> entries = new LinkedHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private int maxSize;
+    private long ttlMillis;
+
+    public SessionCache(int maxSize, long ttlMillis) {
+        configure(maxSize, ttlMillis);
+    }
+
+    public synchronized void configure(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlMillis = Math.max(0, ttlMillis);
+    }
+
+    public synchronized void put(@NotNull UUID playerId, @NotNull PlayerData data) {
+        entries.remove(playerId);
+        entries.put(playerId, new CachedSession(data, System.currentTimeMillis()));
+        evict();
+    }
+
+    /**
+     * Saca la entrada de la caché para volver a usarla en una sesión activa.
+     */
+    public synchronized @Nullable PlayerData take(@NotNull UUID playerId) {
+        CachedSession session = entries.remove(playerId);
+        return session != null ? session.data() : null;
+    }
+
+    public synchronized @Nullable PlayerData peek(@NotNull UUID playerId) {
+        CachedSession session = entries.get(playerId);
+        return session != null ? session.data() : null;
+    }
+
+    public synchronized boolean contains(@NotNull UUID playerId) {
+        return entries.containsKey(playerId);
+    }
+
+    public synchronized void forEach(@NotNull BiConsumer<UUID, PlayerData> action) {
+        entries.forEach((playerId, session) -> action.accept(playerId, session.data()));
+    }
+
+    /**
+     * Descarta las entradas caducadas o que exceden el tamaño máximo, empezando por las
+     * más antiguas. Las que aún tienen cambios sin guardar se mantienen hasta el siguiente intento.
+     */
+    public synchronized void evict() {
+        long now = System.currentTimeMillis();
+        int excess = entries.size() - maxSize;
+        Iterator<CachedSession> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            CachedSession session = iterator.next();
+            boolean expired = now - session.cachedAt() > ttlMillis;
+            if (!expired && excess <= 0) {
+                break; // El resto es más reciente
+            }
+            if (!session.data().isDirty()) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record CachedSession(PlayerData data, long cachedAt) {
+    }
+}
@@ -0,0 +1,184 @@
+package rpg.stats.rpg_stats.managers;
+
+import io.papermc.paper.scoreboard.numbers.NumberFormat;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.Criteria;
+import org.bukkit.scoreboard.DisplaySlot;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Barra lateral con nivel, XP, maná, clase y puntos. Cada jugador tiene su propio
+ * {@link Scoreboard}; si otro plugin le asignó uno, no se muestra (puede ser compartido
+ * por varios jugadores y cada uno pisaría las líneas de los demás). Cada línea es un equipo con una entrada invisible y el texto
+ * en el prefijo, así que cambiar una línea es un solo paquete y las demás no se
+ * tocan. Se dibuja en la misma pasada que el HUD de {@link XPDisplay}, con las
+ * mismas marcas de cambios, y solo se reenvían las líneas cuyos valores cambiaron.
+ * Solo se usa desde el hilo principal.
+ */
+public class SidebarRenderer {
+    private static final String OBJECTIVE_NAME = "rpgstats";
+    private static final String TEAM_PREFIX = "rpgstats_line";
+    // Entradas de las líneas: códigos de color que el cliente no muestra
+    private static final String LINE_CODES = "0123456789abcdef";
+
+    // Índices de SIDEBAR_SLOTS
+    private static final int LEVEL = 0, XP = 1, NEEDED = 2, MANA = 3, MAX_MANA = 4, POINTS = 5, CLASS = 6;
+
+    private final PlayerProgress playerProgress;
+
+    public SidebarRenderer(@NotNull PlayerProgress playerProgress) {
+        this.playerProgress = Objects.requireNonNull(playerProgress);
+    }
+
+    public void render(@NotNull Player player, @NotNull PlayerSession session, @NotNull HudTemplates hud,
+                       int xpTenths, int neededTenths) {
+        PlayerSidebar sidebar = session.getSidebar();
+        if (sidebar != null && player.getScoreboard() != sidebar.scoreboard) {
+            // Otro plugin le cambió el marcador: el nuestro ya no se ve
+            playerProgress.getLevelPrefixes().untrackScoreboard(player);
+            sidebar = null;
+            session.setSidebar(null);
+        }
+        if (sidebar == null || sidebar.layout != hud) {
+            // Primera vez o configuración recargada: se monta de nuevo con todas las líneas
+            sidebar = create(player, hud, sidebar != null ? sidebar.scoreboard : null);
+            session.setSidebar(sidebar);
+            if (sidebar == null) return;
+        }
+
+        PlayerData pd = session.getData();
+        int[] current = {pd.getLevel(), xpTenths, neededTenths, pd.getMana(), pd.getMaxMana(), pd.getAvailablePoints()};
+        String playerClass = pd.getPlayerClass();
+
+        int changed = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != sidebar.values[i]) {
+                changed |= 1 << i;
+                sidebar.values[i] = current[i];
+            }
+        }
+        if (!playerClass.equals(sidebar.playerClass)) {
+            changed |= 1 << CLASS;
+            sidebar.playerClass = playerClass;
+        }
+        if (changed == 0) return;
+
+        Object[] values = null;
+        for (int line = 0; line < sidebar.lines.length; line++) {
+            if ((hud.getSidebarLineSlots(line) & changed) == 0) continue;
+            if (values == null) {
+                values = formatValues(sidebar);
+            }
+            sidebar.lines[line].prefix(hud.renderSidebarLine(line, values));
+        }
+    }
+
+    private @NotNull Object[] formatValues(@NotNull PlayerSidebar sidebar) {
+        int[] v = sidebar.values;
+        Object[] values = new Object[HudTemplates.SIDEBAR_SLOTS.size()];
+        values[LEVEL] = Integer.toString(v[LEVEL]);
+        values[XP] = HudTemplates.formatTenths(v[XP]);
+        values[NEEDED] = HudTemplates.formatTenths(v[NEEDED]);
+        values[MANA] = Integer.toString(v[MANA]);
+        values[MAX_MANA] = Integer.toString(v[MAX_MANA]);
+        values[POINTS] = Integer.toString(v[POINTS]);
+        values[CLASS] = "none".equalsIgnoreCase(sidebar.playerClass)
+                ? "Sin Clase"
+                : playerProgress.getClassManager().getClassDisplayName(sidebar.playerClass);
+        return values;
+    }
+
+    /**
+     * @param scoreboard marcador propio ya creado en una pasada anterior, o null
+     * @return null si el jugador usa un marcador de otro plugin
+     */
+    private @Nullable PlayerSidebar create(@NotNull Player player, @NotNull HudTemplates hud,
+                                           @Nullable Scoreboard scoreboard) {
+        if (scoreboard == null) {
+            // Solo se sustituye el principal: un marcador de otro plugin puede ser compartido
+            if (player.getScoreboard() != Bukkit.getScoreboardManager().getMainScoreboard()) {
+                return null;
+            }
+            scoreboard = Bukkit.getScoreboardManager().getNewScoreboard();
+            player.setScoreboard(scoreboard);
+        }
+        // Sin esto el jugador dejaría de ver los prefijos de nivel
+        playerProgress.getLevelPrefixes().trackScoreboard(player, scoreboard);
+
+        Objective previous = scoreboard.getObjective(OBJECTIVE_NAME);
+        if (previous != null) {
+            previous.unregister();
+        }
+        Objective objective = scoreboard.registerNewObjective(OBJECTIVE_NAME, Criteria.DUMMY, hud.getSidebarTitle());
+        objective.numberFormat(NumberFormat.blank());
+        objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+
+        int count = hud.getSidebarLineCount();
+        Team[] lines = new Team[count];
+        for (int line = 0; line < count; line++) {
+            String entry = "§" + LINE_CODES.charAt(line);
+            Team team = scoreboard.getTeam(TEAM_PREFIX + line);
+            if (team == null) {
+                team = scoreboard.registerNewTeam(TEAM_PREFIX + line);
+            }
+            if (!team.hasEntry(entry)) {
+                team.addEntry(entry);
+            }
+            // La primera línea tiene la puntuación más alta para quedar arriba
+            objective.getScore(entry).setScore(count - line);
+            lines[line] = team;
+        }
+
+        // Equipos de una configuración anterior con más líneas
+        for (int line = count; line < HudTemplates.MAX_SIDEBAR_LINES; line++) {
+            Team stale = scoreboard.getTeam(TEAM_PREFIX + line);
+            if (stale != null) {
+                stale.unregister();
+            }
+        }
+        return new PlayerSidebar(hud, scoreboard, objective, lines);
+    }
+
+    /**
+     * Quita la barra lateral, por ejemplo si se desactiva al recargar.
+     */
+    public void remove(@NotNull Player player, @NotNull PlayerSession session) {
+        PlayerSidebar sidebar = session.getSidebar();
+        if (sidebar == null) return;
+
+        sidebar.objective.unregister();
+        for (Team team : sidebar.lines) {
+            team.unregister();
+        }
+        playerProgress.getLevelPrefixes().untrackScoreboard(player);
+        if (player.getScoreboard() == sidebar.scoreboard) {
+            player.setScoreboard(Bukkit.getScoreboardManager().getMainScoreboard());
+        }
+        session.setSidebar(null);
+    }
+
+    public static final class PlayerSidebar {
+        private final HudTemplates layout;
+        // Marcador propio creado por la barra lateral; al quitarla se devuelve el principal
+        private final Scoreboard scoreboard;
+        private final Objective objective;
+        private final Team[] lines;
+        // Últimos valores enviados en el orden de SIDEBAR_SLOTS (la clase aparte)
+        private final int[] values = {-1, -1, -1, -1, -1, -1};
+        private String playerClass;
+
+        private PlayerSidebar(HudTemplates layout, Scoreboard scoreboard, Objective objective, Team[] lines) {
+            this.layout = layout;
+            this.scoreboard = scoreboard;
+            this.objective = objective;
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base de datos SQLite embebida en un único archivo (el driver viene incluido en Paper).
+ * Nivel, XP y clase son columnas indexadas para rankings y consultas de administración;
+ * el resto de {@link PlayerData} va codificado con {@link PlayerDataCodec}.
+ */
+public class SqlitePlayerDataStore implements PlayerDataStore {
+    private static final String UPSERT_SQL = """
+            INSERT INTO player_data (uuid, level, xp, player_class, data, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT(uuid) DO UPDATE SET
+                level = excluded.level,
+                xp = excluded.xp,
+                player_class = excluded.player_class,
+                data = excluded.data,
+                updated_at = excluded.updated_at""";
+
+    // Una sola conexión compartida; SQLite serializa las escrituras de todos modos
+    private final Connection connection;
+
+    public SqlitePlayerDataStore(@NotNull File file) throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("""
+                        CREATE TABLE IF NOT EXISTS player_data (
+                            uuid TEXT PRIMARY KEY,
+                            level INTEGER NOT NULL,
+                            xp REAL NOT NULL,
+                            player_class TEXT NOT NULL,
+                            data BLOB NOT NULL,
+                            updated_at INTEGER NOT NULL
+                        )""");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_player_data_level ON player_data (level DESC, xp DESC)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_player_data_class ON player_data (player_class)");
+            }
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new IOException("No se pudo abrir la base de datos " + file.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized @Nullable PlayerData load(@NotNull UUID playerId) throws IOException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT data FROM player_data WHERE uuid = ?")) {
+            statement.setString(1, playerId.toString());
+            try (ResultSet result = statement.executeQuery()) {
+                if (!result.next()) {
+                    return null;
+                }
+                PlayerData pd = PlayerDataCodec.decode(result.getBytes(1));
+                pd.markSaved(pd.getVersion());
+                return pd;
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Todas las copias en una sola transacción con un lote de upserts preparados.
+     */
+    @Override
+    public synchronized void saveAll(@NotNull Collection<PlayerDataSnapshot> snapshots) throws IOException {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                long now = System.currentTimeMillis();
+                for (PlayerDataSnapshot snapshot : snapshots) {
+                    statement.setString(1, snapshot.playerId().toString());
+                    statement.setInt(2, snapshot.level());
+                    statement.setFloat(3, snapshot.xp());
+                    statement.setString(4, snapshot.playerClass());
+                    statement.setBytes(5, PlayerDataCodec.encode(snapshot));
+                    statement.setLong(6, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void delete(@NotNull UUID playerId) throws IOException {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM player_data WHERE uuid = ?")) {
+            statement.setString(1, playerId.toString());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized @NotNull List<RankingEntry> topByLevel(int limit) throws IOException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT uuid, level, xp, player_class FROM player_data ORDER BY level DESC, xp DESC LIMIT ?")) {
+            statement.setInt(1, limit);
+            try (ResultSet result = statement.executeQuery()) {
+                List<RankingEntry> entries = new ArrayList<>();
+                while (result.next()) {
+                    entries.add(new RankingEntry(
+                            UUID.fromString(result.getString(1)),
+                            result.getInt(2),
+                            result.getFloat(3),
+                            result.getString(4)));
+                }
+                return entries;
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Qué herramienta sirve para qué bloque, precalculado sobre {@code Material.ordinal()}.
+ * Cada herramienta pertenece como mucho a una categoría y cada categoría tiene un
+ * {@link BitSet} con sus bloques, así que la comprobación es una lectura y un bit.
+ * <p>
+ * {@link #compile} no toca el servidor y puede ir en un hilo asíncrono; los tags se
+ * leen de los registros del servidor, así que se resuelven después en el hilo
+ * principal con {@link #resolveTags}.
+ */
+public final class ToolCategories {
+    public enum Category {
+        PICKAXE, AXE, SHOVEL, SHEARS, HOE;
+
+        public @NotNull String configKey() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    // Categoría de cada material como herramienta (-1 si no es herramienta)
+    private final byte[] toolCategory;
+    private final BitSet[] blocks;
+    // Tags de la configuración pendientes de resolver en el hilo principal
+    private final List<PendingTag> pendingTags;
+
+    private ToolCategories(byte[] toolCategory, BitSet[] blocks, List<PendingTag> pendingTags) {
+        this.toolCategory = toolCategory;
+        this.blocks = blocks;
+        this.pendingTags = pendingTags;
+    }
+
+    public boolean isCorrectTool(@NotNull Material tool, @NotNull Material block) {
+        int category = toolCategory[tool.ordinal()];
+        return category >= 0 && blocks[category].get(block.ordinal());
+    }
+
+    public @Nullable Category getCategory(@NotNull Material tool) {
+        int category = toolCategory[tool.ordinal()];
+        return category >= 0 ? CATEGORIES[category] : null;
+    }
+
+    /**
+     * Combina las reglas por defecto con la sección {@code tool-categories}:
+     * <pre>
+     * tool-categories:
+     *   pickaxe:
+     *     item-tags: [pickaxes]          # tags de ítems que cuentan como herramienta
+     *     tools: [...]                   # materiales sueltos
+     *     block-tags: [mineable/pickaxe] # tags de bloques válidos
+     *     blocks: [...]                  # bloques sueltos
+     * </pre>
+     */
+    public static @NotNull ToolCategories compile(@NotNull ConfigurationSection config, @NotNull Logger logger) {
+        Material[] materials = Material.values();
+        byte[] toolCategory = new byte[materials.length];
+        BitSet[] blocks = new BitSet[CATEGORIES.length];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = new BitSet(materials.length);
+        }
+
+        // Reglas por defecto: los nombres se comparan aquí una sola vez, no en cada evento
+        for (Material material : materials) {
+            Category category = defaultCategory(material);
+            toolCategory[material.ordinal()] = (byte) (category != null ? category.ordinal() : -1);
+
+            for (Category target : CATEGORIES) {
+                if (isDefaultBlock(target, material)) {
+                    blocks[target.ordinal()].set(material.ordinal());
+                }
+            }
+        }
+
+        List<PendingTag> pendingTags = new ArrayList<>();
+        ConfigurationSection section = config.getConfigurationSection("tool-categories");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                Category category = parseCategory(key);
+                ConfigurationSection categorySection = section.getConfigurationSection(key);
+                if (category == null || categorySection == null) {
+                    logger.warning("Categoría de herramienta desconocida en tool-categories: '" + key + "'");
+                    continue;
+                }
+
+                String path = "tool-categories." + key;
+                for (Material tool : materials(categorySection, "tools", path, logger)) {
+                    toolCategory[tool.ordinal()] = (byte) category.ordinal();
+                }
+                for (Material block : materials(categorySection, "blocks", path, logger)) {
+                    blocks[category.ordinal()].set(block.ordinal());
+                }
+                addTags(pendingTags, categorySection, "item-tags", Tag.REGISTRY_ITEMS, category, path);
+                addTags(pendingTags, categorySection, "block-tags", Tag.REGISTRY_BLOCKS, category, path);
+            }
+        }
+
+        return new ToolCategories(toolCategory, blocks, List.copyOf(pendingTags));
+    }
+
+    /**
+     * Añade los materiales de los tags de la configuración. Lee los registros del
+     * servidor, así que solo desde el hilo principal.
+     */
+    public @NotNull ToolCategories resolveTags(@NotNull Logger logger) {
+        if (pendingTags.isEmpty()) {
+            return this;
+        }
+
+        byte[] resolvedTools = toolCategory.clone();
+        BitSet[] resolvedBlocks = new BitSet[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            resolvedBlocks[i] = (BitSet) blocks[i].clone();
+        }
+
+        for (PendingTag pending : pendingTags) {
+            String tagName = pending.name();
+            NamespacedKey key = tagName.contains(":")
+                    ? NamespacedKey.fromString(tagName.toLowerCase(Locale.ROOT))
+                    : NamespacedKey.minecraft(tagName.toLowerCase(Locale.ROOT));
+            Tag<Material> tag = key != null ? Bukkit.getTag(pending.registry(), key, Material.class) : null;
+            if (tag == null) {
+                logger.warning("Tag desconocido en " + pending.path() + ": '" + tagName + "'");
+                continue;
+            }
+
+            int category = pending.category().ordinal();
+            for (Material material : tag.getValues()) {
+                if (Tag.REGISTRY_ITEMS.equals(pending.registry())) {
+                    resolvedTools[material.ordinal()] = (byte) category;
+                } else {
+                    resolvedBlocks[category].set(material.ordinal());
+                }
+            }
+        }
+        return new ToolCategories(resolvedTools, resolvedBlocks, List.of());
+    }
+
+    private static void addTags(@NotNull List<PendingTag> pendingTags, @NotNull ConfigurationSection section,
+                                @NotNull String tagsKey, @NotNull String registry,
+                                @NotNull Category category, @NotNull String path) {
+        for (String tagName : section.getStringList(tagsKey)) {
+            pendingTags.add(new PendingTag(category, registry, tagName, path + "." + tagsKey));
+        }
+    }
+
+    private static @NotNull Set<Material> materials(@NotNull ConfigurationSection section,
+                                                    @NotNull String materialsKey, @NotNull String path,
+                                                    @NotNull Logger logger) {
+        Set<Material> result = EnumSet.noneOf(Material.class);
+
+        for (String name : section.getStringList(materialsKey)) {
+            Material material = Material.matchMaterial(name);
+            if (material == null) {
+                logger.warning("Material desconocido en " + path + "." + materialsKey + ": '" + name + "'");
+                continue;
+            }
+            result.add(material);
+        }
+        return result;
+    }
+
+    private record PendingTag(@NotNull Category category, @NotNull String registry,
+                              @NotNull String name, @NotNull String path) {
+    }
+
+    private static @Nullable Category parseCategory(@NotNull String key) {
+        try {
+            return Category.valueOf(key.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static @Nullable Category defaultCategory(@NotNull Material tool) {
+        String toolType = tool.toString();
+        if (toolType.contains("_PICKAXE")) return Category.PICKAXE;
+        if (toolType.contains("_AXE")) return Category.AXE;
+        if (toolType.contains("_SHOVEL")) return Category.SHOVEL;
+        if (tool == Material.SHEARS) return Category.SHEARS;
+        if (toolType.contains("_HOE")) return Category.HOE;
+        return null;
+    }
+
+    private static boolean isDefaultBlock(@NotNull Category category, @NotNull Material block) {
+        String name = block.toString();
+        return switch (category) {
+            // Picos (minerales, piedras y bloques duros)
+            case PICKAXE -> isOre(block) ||
+                    block == Material.STONE ||
+                    block == Material.DEEPSLATE ||
+                    block == Material.COBBLESTONE ||
+                    block == Material.BLACKSTONE ||
+                    block == Material.BASALT ||
+                    block == Material.ANDESITE ||
+                    block == Material.DIORITE ||
+                    block == Material.GRANITE ||
+                    block == Material.INFESTED_STONE ||
+                    block == Material.INFESTED_COBBLESTONE ||
+                    block == Material.INFESTED_DEEPSLATE ||
+                    block == Material.CALCITE ||
+                    block == Material.TUFF ||
+                    block == Material.DRIPSTONE_BLOCK ||
+                    block == Material.PRISMARINE ||
+                    block == Material.PRISMARINE_BRICKS ||
+                    block == Material.DARK_PRISMARINE ||
+                    block == Material.END_STONE ||
+                    block == Material.PURPUR_BLOCK ||
+                    block == Material.NETHER_BRICKS ||
+                    block == Material.RED_NETHER_BRICKS ||
+                    block == Material.QUARTZ_BLOCK ||
+                    block == Material.SMOOTH_QUARTZ ||
+                    block == Material.CHISELED_QUARTZ_BLOCK ||
+                    block == Material.QUARTZ_PILLAR ||
+                    block == Material.MAGMA_BLOCK;
+
+            // Hachas (madera y derivados)
+            case AXE -> name.contains("_LOG") ||
+                    name.contains("_WOOD") ||
+                    name.contains("_STEM") ||
+                    name.contains("_HYPHAE") ||
+                    block == Material.BOOKSHELF ||
+                    block == Material.CHEST ||
+                    block == Material.TRAPPED_CHEST ||
+                    block == Material.CRAFTING_TABLE ||
+                    block == Material.LADDER ||
+                    block == Material.JUKEBOX ||
+                    block == Material.NOTE_BLOCK ||
+                    block == Material.BEEHIVE ||
+                    block == Material.BEE_NEST ||
+                    block == Material.PUMPKIN ||
+                    block == Material.CARVED_PUMPKIN ||
+                    block == Material.MELON;
+
+            // Palas (tierra, arena y nieve)
+            case SHOVEL -> block == Material.DIRT ||
+                    block == Material.GRASS_BLOCK ||
+                    block == Material.DIRT_PATH ||
+                    block == Material.COARSE_DIRT ||
+                    block == Material.PODZOL ||
+                    block == Material.ROOTED_DIRT ||
+                    block == Material.SAND ||
+                    block == Material.RED_SAND ||
+                    block == Material.GRAVEL ||
+                    block == Material.CLAY ||
+                    block == Material.SOUL_SAND ||
+                    block == Material.SOUL_SOIL ||
+                    block == Material.SNOW_BLOCK ||
+                    block == Material.SNOW ||
+                    block == Material.FARMLAND ||
+                    block == Material.MYCELIUM;
+
+            // Tijeras (hojas, telarañas, vegetación)
+            case SHEARS -> name.contains("_LEAVES") ||
+                    block == Material.COBWEB ||
+                    block == Material.GRASS_BLOCK ||
+                    block == Material.FERN ||
+                    block == Material.SEAGRASS ||
+                    block == Material.TALL_GRASS ||
+                    block == Material.TALL_SEAGRASS ||
+                    block == Material.DEAD_BUSH ||
+                    block == Material.VINE;
+
+            // Azadas (cultivos y bloques especiales)
+            case HOE -> block == Material.HAY_BLOCK ||
+                    name.contains("_LEAVES") ||
+                    block == Material.SCULK ||
+                    block == Material.SCULK_VEIN ||
+                    block == Material.SCULK_CATALYST ||
+                    block == Material.SCULK_SHRIEKER ||
+                    block == Material.MOSS_BLOCK ||
+                    block == Material.MOSS_CARPET ||
+                    block == Material.SPONGE ||
+                    block == Material.WET_SPONGE;
+        };
+    }
+
+    private static boolean isOre(@NotNull Material block) {
+        return block.toString().contains("_ORE") ||
+                block == Material.ANCIENT_DEBRIS ||
+                block == Material.NETHER_QUARTZ_ORE ||
+                block == Material.GILDED_BLACKSTONE;
+    }
+}
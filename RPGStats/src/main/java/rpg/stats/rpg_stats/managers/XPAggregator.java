@@ -0,0 +1,76 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Acumula la XP de cada jugador durante un tick y la aplica de una vez al
+ * siguiente: con vein-miner, tala de árboles o TNT un jugador puede romper
+ * decenas de bloques en el mismo tick, y cada uno no necesita su propia
+ * comprobación de nivel, actualización del HUD y mensaje en la action bar.
+ * Solo se usa desde el hilo principal.
+ */
+public class XPAggregator {
+    private final JavaPlugin plugin;
+    private final PlayerProgress progress;
+    private final Map<UUID, PendingGrants> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    public XPAggregator(@NotNull JavaPlugin plugin, @NotNull PlayerProgress progress) {
+        this.plugin = Objects.requireNonNull(plugin);
+        this.progress = Objects.requireNonNull(progress);
+    }
+
+    public void add(@NotNull Player player, @NotNull String source, float amount, int mana) {
+        if (amount <= 0 && mana <= 0) return;
+
+        PendingGrants grants = pending.computeIfAbsent(player.getUniqueId(), k -> new PendingGrants(player));
+        if (amount > 0) {
+            grants.amounts.merge(source, amount, Float::sum);
+        }
+        grants.mana += mana;
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    /**
+     * Aplica lo pendiente de un jugador antes de tiempo, por ejemplo al desconectarse.
+     */
+    public void flush(@NotNull Player player) {
+        PendingGrants grants = pending.remove(player.getUniqueId());
+        if (grants != null) {
+            progress.applyXPBatch(player, grants.amounts, grants.mana);
+        }
+    }
+
+    public void flush() {
+        flushScheduled = false;
+        if (pending.isEmpty()) return;
+
+        List<PendingGrants> batch = new ArrayList<>(pending.values());
+        pending.clear();
+        for (PendingGrants grants : batch) {
+            if (grants.player.isOnline()) {
+                progress.applyXPBatch(grants.player, grants.amounts, grants.mana);
+            }
+        }
+    }
+
+    private static final class PendingGrants {
+        private final Player player;
+        // Orden de llegada de cada fuente, para el mensaje de la action bar
+        private final Map<String, Float> amounts = new LinkedHashMap<>(4);
+        private int mana;
+
+        private PendingGrants(Player player) {
+            this.player = player;
+        }
+    }
+}
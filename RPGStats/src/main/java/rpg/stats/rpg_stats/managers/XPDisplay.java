@@ -1,59 +1,265 @@
 package rpg.stats.rpg_stats.managers;
 
+import net.kyori.adventure.bossbar.BossBar;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 
+/**
+ * HUD de progreso (action bar o barra de jefe, y barra de XP). Los cambios en los datos solo marcan
+ * la sesión como pendiente; al final del tick se dibuja una vez cada jugador marcado
+ * y solo se envía lo que ha cambiado respecto a lo último enviado. Si un jugador se
+ * dibujó hace menos de {@code xp-display.update-interval}, sigue pendiente y se
+ * dibuja con el estado más reciente al cumplirse el intervalo. Tras un mensaje de XP
+ * ganada la action bar del HUD espera también un intervalo, para no enviar dos seguidas.
+ * <p>
+ * En modo barra de jefe cada jugador tiene una sola {@link BossBar} que solo se toca
+ * cuando cambian el nivel o el porcentaje redondeado, y se oculta tras
+ * {@code xp-display.bossbar.hide-after} segundos sin cambios. La barra lateral
+ * ({@link SidebarRenderer}) se dibuja en la misma pasada.
+ * Solo se usa desde el hilo principal.
+ */
 public class XPDisplay {
+    private final JavaPlugin plugin;
     private PlayerProgress playerProgress;
-    private final Map<UUID, Long> lastUpdate = new HashMap<>();
+    private SidebarRenderer sidebar;
+    private final Map<UUID, Player> dirty = new LinkedHashMap<>();
+    // Tick de la próxima pasada ya programada (-1 si no hay ninguna)
+    private int scheduledTick = -1;
+    // Jugadores con la barra de jefe visible y que se ocultará por inactividad
+    private final Map<UUID, Player> visibleBossBars = new HashMap<>();
+    private BukkitTask idleTask;
 
-    public void updateDisplay(@NotNull Player player) {
+    public XPDisplay(@NotNull JavaPlugin plugin) {
+        this.plugin = Objects.requireNonNull(plugin);
+    }
+
+    public void markDirty(@NotNull Player player) {
         if (playerProgress == null) return;
+        PlayerSession session = playerProgress.getSession(player.getUniqueId());
+        if (session != null) {
+            markDirty(player, session);
+        }
+    }
+
+    public void markDirty(@NotNull Player player, @NotNull PlayerSession session) {
+        if (session.isDisplayDirty()) return;
+        session.setDisplayDirty(true);
+        dirty.put(player.getUniqueId(), player);
+        scheduleRender(1L);
+    }
+
+    private void scheduleRender(long delayTicks) {
+        int target = Bukkit.getCurrentTick() + (int) delayTicks;
+        if (scheduledTick >= 0 && scheduledTick <= target) return;
+        scheduledTick = target;
+        Bukkit.getScheduler().runTaskLater(plugin, this::render, delayTicks);
+    }
+
+    private void render() {
+        int tick = Bukkit.getCurrentTick();
+        if (tick >= scheduledTick) {
+            scheduledTick = -1;
+        }
+        if (playerProgress == null || dirty.isEmpty()) return;
+
+        int interval = playerProgress.getSettings().getHudUpdateTicks();
+        int nextDue = Integer.MAX_VALUE;
+
+        List<Player> deferred = null;
+        Iterator<Player> iterator = dirty.values().iterator();
+        while (iterator.hasNext()) {
+            Player player = iterator.next();
+            PlayerSession session = playerProgress.getSession(player.getUniqueId());
+            if (session == null || !player.isOnline()) {
+                iterator.remove();
+                continue;
+            }
+
+            // Aún dentro del intervalo: se queda pendiente con su último estado
+            if (tick < session.getNextDisplayTick()) {
+                nextDue = Math.min(nextDue, session.getNextDisplayTick());
+                continue;
+            }
+
+            iterator.remove();
+            session.setDisplayDirty(false);
+            session.setNextDisplayTick(tick + interval);
+            if (render(player, session, tick, interval)) {
+                if (deferred == null) {
+                    deferred = new ArrayList<>();
+                }
+                deferred.add(player);
+            }
+        }
+
+        // Su action bar quedó pendiente: se dibuja en la siguiente pasada permitida
+        if (deferred != null) {
+            for (Player player : deferred) {
+                markDirty(player);
+            }
+        }
+
+        if (!dirty.isEmpty()) {
+            scheduleRender(Math.max(1L, (long) nextDue - tick));
+        }
+    }
+
+    /**
+     * @return true si la action bar no se dibujó para no pisar el mensaje de XP ganada
+     */
+    private boolean render(@NotNull Player player, @NotNull PlayerSession session, int tick, int interval) {
+        PlayerData pd = session.getData();
+        float currentXP = pd.getXp();
+        int level = pd.getLevel();
+        float neededXP = playerProgress.getXPToNextLevel(level);
 
-        long now = System.currentTimeMillis();
-        if (now - lastUpdate.getOrDefault(player.getUniqueId(), 0L) < 1000) {
-            return;
+        // Se compara con la precisión que se muestra: si no cambia, no se construye nada
+        HudTemplates hud = playerProgress.getSettings().getHudTemplates();
+        int xpTenths = Math.round(currentXP * 10);
+        int neededTenths = Math.round(neededXP * 10);
+        boolean deferred = false;
+        if (hud.getMode().usesActionBar()) {
+            // Una sola action bar por ganancia: el HUD espera un intervalo tras el mensaje de XP
+            if (session.getXpGainTick() > tick - interval) {
+                deferred = true;
+                // El mensaje tapó el HUD: al volver se envía aunque no haya cambiado
+                session.updateRenderedHud(-1, -1, -1);
+            } else if (session.updateRenderedHud(level, xpTenths, neededTenths)) {
+                player.sendActionBar(hud.renderActionBar(level, xpTenths, neededTenths));
+            }
         }
-        lastUpdate.put(player.getUniqueId(), now);
 
-        float currentXP = playerProgress.getCurrentXP(player);
-        float neededXP = playerProgress.getXPToNextLevel(player);
-        int level = playerProgress.getLevel(player);
+        if (hud.getMode().usesBossBar()) {
+            renderBossBar(player, session, hud, level, xpTenths, neededTenths);
+        } else if (session.isBossBarVisible()) {
+            // El modo cambió al recargar
+            hideBossBar(player, session);
+        }
 
-        String progressBar = createProgressBar(currentXP / neededXP);
-        String message = String.format("§eNivel %d §7| §b%.1f§7/§b%.1f XP §7[%s§7]",
-                level, currentXP, neededXP, progressBar);
+        if (hud.isSidebarEnabled()) {
+            sidebar.render(player, session, hud, xpTenths, neededTenths);
+        } else if (session.getSidebar() != null) {
+            sidebar.remove(player, session);
+        }
 
-        player.sendActionBar(Component.text(message));
-        player.setLevel(level);
-        player.setExp(Math.min(0.999F, currentXP / neededXP));
+        // Se compara con el estado real del jugador: la XP vanilla también puede cambiarlo
+        if (player.getLevel() != level) {
+            player.setLevel(level);
+        }
+        float exp = Math.min(0.999F, currentXP / neededXP);
+        if (player.getExp() != exp) {
+            player.setExp(exp);
+        }
+        return deferred;
     }
 
-    private String createProgressBar(double progress) {
-        int filled = (int) (progress * 10);
-        return "§a" + "|".repeat(Math.max(0, filled)) +
-                "§7" + "|".repeat(Math.max(0, 10 - filled));
+    private void renderBossBar(@NotNull Player player, @NotNull PlayerSession session, @NotNull HudTemplates hud,
+                               int level, int xpTenths, int neededTenths) {
+        int percent = neededTenths > 0 ? (int) Math.max(0, Math.min(100, (long) xpTenths * 100 / neededTenths)) : 0;
+        if (!session.updateBossBar(level, percent)) return;
+
+        BossBar bar = session.getBossBar();
+        Component title = hud.renderBossBarTitle(level, percent);
+        if (bar == null) {
+            bar = BossBar.bossBar(title, percent / 100f, hud.getBossBarColor(), hud.getBossBarOverlay());
+            session.setBossBar(bar);
+        } else {
+            // Adventure solo envía paquete por las propiedades que cambian de verdad
+            bar.name(title);
+            bar.progress(percent / 100f);
+            bar.color(hud.getBossBarColor());
+            bar.overlay(hud.getBossBarOverlay());
+        }
+
+        if (!session.isBossBarVisible()) {
+            player.showBossBar(bar);
+            session.setBossBarVisible(true);
+        }
+
+        int idleTicks = hud.getBossBarIdleTicks();
+        if (idleTicks > 0) {
+            session.setBossBarHideTick(Bukkit.getCurrentTick() + idleTicks);
+            visibleBossBars.put(player.getUniqueId(), player);
+            if (idleTask == null) {
+                idleTask = Bukkit.getScheduler().runTaskTimer(plugin, this::hideIdleBossBars, 20L, 20L);
+            }
+        } else {
+            visibleBossBars.remove(player.getUniqueId());
+        }
+    }
+
+    private void hideIdleBossBars() {
+        int tick = Bukkit.getCurrentTick();
+        Iterator<Player> iterator = visibleBossBars.values().iterator();
+        while (iterator.hasNext()) {
+            Player player = iterator.next();
+            PlayerSession session = playerProgress.getSession(player.getUniqueId());
+            if (session == null || !player.isOnline() || !session.isBossBarVisible()) {
+                iterator.remove();
+            } else if (tick >= session.getBossBarHideTick()) {
+                iterator.remove();
+                hideBossBar(player, session);
+            }
+        }
+
+        if (visibleBossBars.isEmpty() && idleTask != null) {
+            idleTask.cancel();
+            idleTask = null;
+        }
+    }
+
+    private void hideBossBar(@NotNull Player player, @NotNull PlayerSession session) {
+        BossBar bar = session.getBossBar();
+        if (bar != null && session.isBossBarVisible()) {
+            player.hideBossBar(bar);
+        }
+        session.setBossBarVisible(false);
+        // Al volver a mostrarse se redibuja aunque el progreso no haya cambiado
+        session.updateBossBar(-1, -1);
     }
 
     public void removePlayer(@NotNull Player player) {
-        lastUpdate.remove(player.getUniqueId());
+        UUID playerId = player.getUniqueId();
+        visibleBossBars.remove(playerId);
+        PlayerSession session = playerProgress != null ? playerProgress.getSession(playerId) : null;
+        if (session != null) {
+            if (dirty.remove(playerId) != null) {
+                session.setDisplayDirty(false);
+            }
+            hideBossBar(player, session);
+        } else {
+            dirty.remove(playerId);
+        }
         player.sendActionBar(Component.text(""));
     }
 
     public void cleanup() {
-        // Limpiar la action bar de todos los jugadores online
-        Bukkit.getOnlinePlayers().forEach(player ->
-                player.sendActionBar(Component.text("")));
-        lastUpdate.clear();
+        dirty.clear();
+        visibleBossBars.clear();
+        if (idleTask != null) {
+            idleTask.cancel();
+            idleTask = null;
+        }
+
+        // Limpiar la action bar y la barra de jefe de todos los jugadores online
+        Bukkit.getOnlinePlayers().forEach(player -> {
+            player.sendActionBar(Component.text(""));
+            PlayerSession session = playerProgress != null ? playerProgress.getSession(player.getUniqueId()) : null;
+            if (session != null) {
+                hideBossBar(player, session);
+                sidebar.remove(player, session);
+            }
+        });
     }
 
     public void setPlayerProgress(@NotNull PlayerProgress playerProgress) {
         this.playerProgress = playerProgress;
+        this.sidebar = new SidebarRenderer(playerProgress);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fuentes de XP con multiplicador precalculado por sesión.
+ * Cualquier otro tipo de acción se calcula en el momento.
+ */
+public enum XPSource {
+    MINING("mining"),
+    COMBAT("combat"),
+    FARMING("farming");
+
+    private static final XPSource[] VALUES = values();
+
+    private final String key;
+
+    XPSource(@NotNull String key) {
+        this.key = key;
+    }
+
+    public @NotNull String getKey() {
+        return key;
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public static @NotNull XPSource byIndex(int index) {
+        return VALUES[index];
+    }
+
+    public static @Nullable XPSource fromKey(@NotNull String actionType) {
+        return switch (actionType) {
+            case "mining" -> MINING;
+            case "combat" -> COMBAT;
+            case "farming" -> FARMING;
+            default -> null;
+        };
+    }
+}
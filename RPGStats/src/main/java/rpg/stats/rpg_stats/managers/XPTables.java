@@ -0,0 +1,255 @@
+package rpg.stats.rpg_stats.managers;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Tablas de XP compiladas desde la configuración, indexadas por {@code ordinal()}.
+ * Se construyen al cargar o recargar y no cambian después, así que un evento
+ * solo hace lecturas de array.
+ */
+public final class XPTables {
+    private static final float DEFAULT_ENTITY_XP = 3.0f;
+
+    // Rutas donde se aceptan valores: la de config.yml (combat en la raíz) y la antigua bajo xp-settings
+    private static final String[] BLOCK_XP_PATHS = {"combat.mining.block-xp", "xp-settings.mining.block-xp"};
+    private static final String[] ENTITY_XP_PATHS = {"combat.base-xp", "xp-settings.combat.base-xp"};
+    private static final String[] WEAPON_PATHS = {"combat.weapon-multipliers", "xp-settings.combat.weapon-multipliers"};
+    private static final String[] TOOL_PATHS = {"combat.mining.tool-multipliers"};
+    // Valores fijos por herramienta: sustituyen al multiplicador sin ajuste por durabilidad
+    private static final String[] TOOL_OVERRIDE_PATHS = {"xp-settings.mining.tool-multipliers"};
+
+    private final float[] blockXp;
+    private final float[] entityXp;
+    private final float[] weaponMultipliers;
+    private final float[] toolMultipliers;
+    private final BitSet toolOverrides;
+
+    private XPTables(float[] blockXp, float[] entityXp, float[] weaponMultipliers, float[] toolMultipliers,
+                     BitSet toolOverrides) {
+        this.blockXp = blockXp;
+        this.entityXp = entityXp;
+        this.weaponMultipliers = weaponMultipliers;
+        this.toolMultipliers = toolMultipliers;
+        this.toolOverrides = toolOverrides;
+    }
+
+    public float getBlockXp(@NotNull Material block) {
+        return blockXp[block.ordinal()];
+    }
+
+    public float getEntityXp(@NotNull EntityType type) {
+        return entityXp[type.ordinal()];
+    }
+
+    public float getWeaponMultiplier(@NotNull Material weapon) {
+        return weaponMultipliers[weapon.ordinal()];
+    }
+
+    public float getToolMultiplier(@NotNull Material tool) {
+        return toolMultipliers[tool.ordinal()];
+    }
+
+    /**
+     * @return true si el multiplicador viene de {@code xp-settings.mining.tool-multipliers}
+     * y se aplica tal cual, sin ajustarlo por durabilidad
+     */
+    public boolean isToolOverride(@NotNull Material tool) {
+        return toolOverrides.get(tool.ordinal());
+    }
+
+    public static @NotNull XPTables compile(@NotNull ConfigurationSection config, @NotNull Logger logger) {
+        int materials = Material.values().length;
+
+        float[] blockXp = new float[materials];
+        setupBlockXPValues(blockXp);
+        applyOverrides(config, BLOCK_XP_PATHS, blockXp, XPTables::materialIndex, logger);
+
+        float[] entityXp = new float[EntityType.values().length];
+        Arrays.fill(entityXp, DEFAULT_ENTITY_XP);
+        setupEntityXPValues(entityXp);
+        applyOverrides(config, ENTITY_XP_PATHS, entityXp, XPTables::entityIndex, logger);
+
+        float[] toolMultipliers = new float[materials];
+        Arrays.fill(toolMultipliers, 1.0f);
+        setupToolMultipliers(toolMultipliers);
+
+        // Las armas parten de los mismos valores por defecto que las herramientas
+        float[] weaponMultipliers = toolMultipliers.clone();
+        applyOverrides(config, WEAPON_PATHS, weaponMultipliers, XPTables::materialIndex, logger);
+        applyOverrides(config, TOOL_PATHS, toolMultipliers, XPTables::materialIndex, logger);
+        BitSet toolOverrides = new BitSet(materials);
+        applyOverrides(config, TOOL_OVERRIDE_PATHS, toolMultipliers, XPTables::materialIndex, logger, toolOverrides);
+
+        return new XPTables(blockXp, entityXp, weaponMultipliers, toolMultipliers, toolOverrides);
+    }
+
+    private static void applyOverrides(@NotNull ConfigurationSection config, @NotNull String[] paths,
+                                       float[] table, @NotNull ToIntFunction<String> indexer,
+                                       @NotNull Logger logger) {
+        applyOverrides(config, paths, table, indexer, logger, null);
+    }
+
+    /**
+     * @param applied si no es null, se marcan los índices con valor en la configuración
+     */
+    private static void applyOverrides(@NotNull ConfigurationSection config, @NotNull String[] paths,
+                                       float[] table, @NotNull ToIntFunction<String> indexer,
+                                       @NotNull Logger logger, @Nullable BitSet applied) {
+        for (String path : paths) {
+            ConfigurationSection section = config.getConfigurationSection(path);
+            if (section == null) continue;
+
+            for (String key : section.getKeys(false)) {
+                int index = indexer.applyAsInt(key);
+                if (index < 0) {
+                    logger.warning("Clave desconocida en " + path + ": '" + key + "' (se ignora)");
+                    continue;
+                }
+                if (!section.isDouble(key) && !section.isInt(key)) {
+                    logger.warning("Valor no numérico en " + path + "." + key + " (se ignora)");
+                    continue;
+                }
+                table[index] = (float) section.getDouble(key);
+                if (applied != null) {
+                    applied.set(index);
+                }
+            }
+        }
+    }
+
+    private static int materialIndex(@NotNull String key) {
+        Material material = Material.matchMaterial(key);
+        return material != null ? material.ordinal() : -1;
+    }
+
+    private static int entityIndex(@NotNull String key) {
+        EntityType type = parseEntityType(key);
+        return type != null ? type.ordinal() : -1;
+    }
+
+    private static @Nullable EntityType parseEntityType(@NotNull String key) {
+        try {
+            return EntityType.valueOf(key.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void setupBlockXPValues(float[] values) {
+        // Bloques de minería
+        values[Material.DIAMOND_ORE.ordinal()] = 10.0f;
+        values[Material.DEEPSLATE_DIAMOND_ORE.ordinal()] = 12.0f;
+        values[Material.IRON_ORE.ordinal()] = 5.0f;
+        values[Material.DEEPSLATE_IRON_ORE.ordinal()] = 6.0f;
+        values[Material.GOLD_ORE.ordinal()] = 7.0f;
+        values[Material.DEEPSLATE_GOLD_ORE.ordinal()] = 8.0f;
+        values[Material.COAL_ORE.ordinal()] = 3.0f;
+        values[Material.DEEPSLATE_COAL_ORE.ordinal()] = 3.5f;
+        values[Material.REDSTONE_ORE.ordinal()] = 4.0f;
+        values[Material.DEEPSLATE_REDSTONE_ORE.ordinal()] = 4.5f;
+        values[Material.LAPIS_ORE.ordinal()] = 4.0f;
+        values[Material.DEEPSLATE_LAPIS_ORE.ordinal()] = 4.5f;
+        values[Material.EMERALD_ORE.ordinal()] = 15.0f;
+        values[Material.DEEPSLATE_EMERALD_ORE.ordinal()] = 17.0f;
+        values[Material.NETHER_GOLD_ORE.ordinal()] = 5.0f;
+        values[Material.NETHER_QUARTZ_ORE.ordinal()] = 3.0f;
+        values[Material.ANCIENT_DEBRIS.ordinal()] = 20.0f;
+        values[Material.STONE.ordinal()] = 1.0f;
+        values[Material.COBBLESTONE.ordinal()] = 0.5f;
+        values[Material.DEEPSLATE.ordinal()] = 1.2f;
+        values[Material.ANDESITE.ordinal()] = 0.8f;
+        values[Material.DIORITE.ordinal()] = 0.8f;
+        values[Material.GRANITE.ordinal()] = 0.8f;
+        values[Material.BASALT.ordinal()] = 1.0f;
+        values[Material.BLACKSTONE.ordinal()] = 1.0f;
+        values[Material.NETHERRACK.ordinal()] = 0.5f;
+        values[Material.END_STONE.ordinal()] = 1.5f;
+        values[Material.DIRT.ordinal()] = 1.0f;
+        values[Material.GRASS_BLOCK.ordinal()] = 1.2f;
+        values[Material.PODZOL.ordinal()] = 1.3f;
+        values[Material.COARSE_DIRT.ordinal()] = 0.8f;
+        values[Material.ROOTED_DIRT.ordinal()] = 1.5f;
+        values[Material.DIRT_PATH.ordinal()] = 0.5f;
+        values[Material.FARMLAND.ordinal()] = 1.0f;
+        values[Material.MYCELIUM.ordinal()] = 1.8f;
+
+        // Bloques de madera
+        values[Material.OAK_LOG.ordinal()] = 2.0f;
+        values[Material.SPRUCE_LOG.ordinal()] = 2.0f;
+        values[Material.BIRCH_LOG.ordinal()] = 2.0f;
+        values[Material.JUNGLE_LOG.ordinal()] = 2.0f;
+        values[Material.ACACIA_LOG.ordinal()] = 2.0f;
+        values[Material.DARK_OAK_LOG.ordinal()] = 2.0f;
+        values[Material.MANGROVE_LOG.ordinal()] = 2.0f;
+        values[Material.CHERRY_LOG.ordinal()] = 2.5f;
+    }
+
+    private static void setupEntityXPValues(float[] values) {
+        // Mobs hostiles
+        values[EntityType.ZOMBIE.ordinal()] = 5.0f;
+        values[EntityType.SKELETON.ordinal()] = 5.0f;
+        values[EntityType.CREEPER.ordinal()] = 7.0f;
+        values[EntityType.SPIDER.ordinal()] = 4.0f;
+        values[EntityType.ENDERMAN.ordinal()] = 10.0f;
+        values[EntityType.WITCH.ordinal()] = 12.0f;
+        values[EntityType.BLAZE.ordinal()] = 8.0f;
+        values[EntityType.GHAST.ordinal()] = 15.0f;
+        values[EntityType.WITHER_SKELETON.ordinal()] = 12.0f;
+        values[EntityType.PHANTOM.ordinal()] = 9.0f;
+
+        // Mobs pasivos
+        values[EntityType.COW.ordinal()] = 2.0f;
+        values[EntityType.PIG.ordinal()] = 2.0f;
+        values[EntityType.SHEEP.ordinal()] = 2.0f;
+        values[EntityType.CHICKEN.ordinal()] = 1.5f;
+        values[EntityType.RABBIT.ordinal()] = 1.5f;
+
+        // Jefes
+        values[EntityType.ENDER_DRAGON.ordinal()] = 100.0f;
+        values[EntityType.WITHER.ordinal()] = 50.0f;
+    }
+
+    private static void setupToolMultipliers(float[] multipliers) {
+        // Herramientas de minería
+        multipliers[Material.WOODEN_PICKAXE.ordinal()] = 0.8f;
+        multipliers[Material.STONE_PICKAXE.ordinal()] = 1.0f;
+        multipliers[Material.IRON_PICKAXE.ordinal()] = 1.2f;
+        multipliers[Material.GOLDEN_PICKAXE.ordinal()] = 1.5f; // Oro da más XP pero se gasta rápido
+        multipliers[Material.DIAMOND_PICKAXE.ordinal()] = 1.3f;
+        multipliers[Material.NETHERITE_PICKAXE.ordinal()] = 1.5f;
+
+        // Hachas
+        multipliers[Material.WOODEN_AXE.ordinal()] = 0.8f;
+        multipliers[Material.STONE_AXE.ordinal()] = 1.0f;
+        multipliers[Material.IRON_AXE.ordinal()] = 1.1f;
+        multipliers[Material.GOLDEN_AXE.ordinal()] = 1.4f;
+        multipliers[Material.DIAMOND_AXE.ordinal()] = 1.2f;
+        multipliers[Material.NETHERITE_AXE.ordinal()] = 1.4f;
+
+        // Espadas (para mobs)
+        multipliers[Material.WOODEN_SWORD.ordinal()] = 0.9f;
+        multipliers[Material.STONE_SWORD.ordinal()] = 1.0f;
+        multipliers[Material.IRON_SWORD.ordinal()] = 1.3f;
+        multipliers[Material.GOLDEN_SWORD.ordinal()] = 1.6f;
+        multipliers[Material.DIAMOND_SWORD.ordinal()] = 1.4f;
+        multipliers[Material.NETHERITE_SWORD.ordinal()] = 1.6f;
+
+        // Palas
+        multipliers[Material.WOODEN_SHOVEL.ordinal()] = 0.8f;
+        multipliers[Material.STONE_SHOVEL.ordinal()] = 1.0f;
+        multipliers[Material.IRON_SHOVEL.ordinal()] = 1.2f;
+        multipliers[Material.GOLDEN_SHOVEL.ordinal()] = 1.5f;
+        multipliers[Material.DIAMOND_SHOVEL.ordinal()] = 1.3f;
+        multipliers[Material.NETHERITE_SHOVEL.ordinal()] = 1.5f;
+    }
+}